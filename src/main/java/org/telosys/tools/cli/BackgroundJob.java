@@ -0,0 +1,252 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.Future;
+
+/**
+ * Command line executed in background ( launched with a trailing '&' ) <br>
+ * The output is kept in a buffer, the last line printed is used as progress <br>
+ * The job runs with the HOME, model and bundle of its context at launch time (snapshot) <br>
+ * The cancellation is cooperative : the job is interrupted and stops at the next output of the command
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class BackgroundJob {
+
+	public enum Status { RUNNING, DONE, FAILED, CANCELLED }
+
+	private static final ThreadLocal<BackgroundJob> CURRENT = new ThreadLocal<>();
+
+	private final int         id ;
+	private final String      commandLine ;
+	private final String      contextName ;
+	private final Environment.Snapshot snapshot ;
+	private final long        startTime ;
+	private final JobOutput   output = new JobOutput();
+	private final PrintWriter printWriter = new PrintWriter(output);
+
+	private volatile long      endTime = 0 ;
+	private volatile Status    status = Status.RUNNING ;
+	private volatile boolean   started = false ;
+	private volatile boolean   cancelled = false ;
+	private volatile Future<?> future ;
+	private boolean            reported = false ;
+
+	/**
+	 * Constructor
+	 * @param id
+	 * @param commandLine
+	 * @param contextName
+	 * @param snapshot the HOME, model and bundle of the context when the job is launched
+	 */
+	protected BackgroundJob(int id, String commandLine, String contextName, Environment.Snapshot snapshot) {
+		super();
+		this.id = id ;
+		this.commandLine = commandLine ;
+		this.contextName = contextName ;
+		this.snapshot = snapshot ;
+		this.startTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Throws a CancelCommandException if the current thread executes a cancelled job
+	 */
+	public static void checkCancelled() {
+		BackgroundJob job = CURRENT.get();
+		if ( job != null && job.cancelled ) {
+			throw new CancelCommandException("Job [" + job.id + "] cancelled");
+		}
+	}
+
+	/**
+	 * Executes the command line with the given commands (in the current thread)
+	 * @param commandProvider
+	 */
+	protected void run(CommandProvider commandProvider) {
+		started = true ;
+		if ( cancelled ) {
+			finish(Status.CANCELLED);
+			return ;
+		}
+		Environment environment = commandProvider.getEnvironment();
+		CURRENT.set(this);
+		environment.setOutput(printWriter);
+		environment.setSnapshot(snapshot);
+		boolean ok = false ;
+		try {
+			ok = new CommandLineProcessor(printWriter, commandProvider).processLine(commandLine);
+		}
+		finally {
+			environment.clearSnapshot();
+			environment.setOutput(null);
+			CURRENT.remove();
+			printWriter.flush();
+			if ( cancelled ) {
+				finish(Status.CANCELLED);
+			}
+			else {
+				finish(ok ? Status.DONE : Status.FAILED);
+			}
+		}
+	}
+
+	private synchronized void finish(Status finalStatus) {
+		if ( status == Status.RUNNING ) {
+			endTime = System.currentTimeMillis();
+			status = finalStatus ;
+			notifyAll();
+		}
+	}
+
+	protected void setFuture(Future<?> future) {
+		this.future = future ;
+	}
+
+	/**
+	 * Requests the job cancellation (the command stops at its next output)
+	 */
+	public void cancel() {
+		cancelled = true ;
+		Future<?> f = future ;
+		if ( f != null ) {
+			f.cancel(true); // interruption for the blocking operations
+		}
+		if ( ! started ) {
+			finish(Status.CANCELLED); // will never be executed
+		}
+	}
+
+	/**
+	 * Waits for the end of the job 
+	 * @throws InterruptedException
+	 */
+	public synchronized void await() throws InterruptedException {
+		while ( status == Status.RUNNING ) {
+			wait();
+		}
+	}
+
+	protected boolean isReported() {
+		return reported;
+	}
+
+	protected void setReported() {
+		this.reported = true;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getCommandLine() {
+		return commandLine;
+	}
+
+	public String getContextName() {
+		return contextName;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public boolean isRunning() {
+		return status == Status.RUNNING ;
+	}
+
+	/**
+	 * Returns the elapsed time (until now if the job is running)
+	 * @return
+	 */
+	public long getElapsedTime() {
+		long end = endTime ;
+		return ( end > 0 ? end : System.currentTimeMillis() ) - startTime ;
+	}
+
+	/**
+	 * Returns the progress : number of lines printed and last line
+	 * @return
+	 */
+	public String getProgress() {
+		return output.getProgress();
+	}
+
+	/**
+	 * Returns all the output of the job
+	 * @return
+	 */
+	public String getOutput() {
+		return output.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "[" + id + "] " + status + " " + ( getElapsedTime() / 1000 ) + "s " 
+				+ "(" + contextName + ") " + commandLine ;
+	}
+
+	/**
+	 * Job output buffer keeping the last line printed
+	 */
+	private static class JobOutput extends Writer {
+		private final StringBuilder buffer = new StringBuilder();
+		private int lines = 0 ;
+		private int lastLineStart = 0 ;
+		private int lastLineEnd = 0 ;
+
+		@Override
+		public synchronized void write(char[] cbuf, int off, int len) {
+			for ( int i = off ; i < off + len ; i++ ) {
+				char c = cbuf[i];
+				if ( c == '\n' ) {
+					if ( buffer.length() > lastLineEnd ) {
+						lastLineStart = lastLineEnd ;
+					}
+					lines++ ;
+					buffer.append(c);
+					lastLineEnd = buffer.length() ;
+				}
+				else {
+					buffer.append(c);
+				}
+			}
+		}
+
+		protected synchronized String getProgress() {
+			String last = buffer.substring(lastLineStart, lastLineEnd).trim();
+			return lines + " line(s)" + ( last.length() > 0 ? ", last : " + last : "" ) ;
+		}
+
+		@Override
+		public void flush() {
+			// nothing to flush
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+
+		@Override
+		public synchronized String toString() {
+			return buffer.toString();
+		}
+	}
+}
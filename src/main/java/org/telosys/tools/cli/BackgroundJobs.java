@@ -0,0 +1,164 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background jobs of the session ( command lines launched with a trailing '&' ) <br>
+ * The jobs are executed by daemon threads (a running job doesn't prevent the CLI exit)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class BackgroundJobs {
+
+	private final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "job-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// 'job id' --> 'job' (sorted by id)
+	private final Map<Integer, BackgroundJob> jobs = new TreeMap<>();
+
+	private int lastId = 0 ;
+
+	/**
+	 * Launches the given command line in background
+	 * @param commandProvider the commands of the context in which the job is executed
+	 * @param commandLine
+	 * @return the job
+	 */
+	public synchronized BackgroundJob submit(final CommandProvider commandProvider, String commandLine) {
+		final BackgroundJob job = new BackgroundJob(++lastId, commandLine, commandProvider.getContextName(), 
+				commandProvider.getEnvironment().takeSnapshot()); // taken now : not affected by the next commands
+		jobs.put(job.getId(), job);
+		job.setFuture( executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				job.run(commandProvider);
+			}
+		}) );
+		return job ;
+	}
+
+	/**
+	 * Returns all the jobs (running or finished and not yet removed)
+	 * @return
+	 */
+	public synchronized List<BackgroundJob> getJobs() {
+		return new ArrayList<>(jobs.values());
+	}
+
+	/**
+	 * Returns the given job
+	 * @param id
+	 * @return the job or null if unknown
+	 */
+	public synchronized BackgroundJob get(int id) {
+		return jobs.get(id);
+	}
+
+	/**
+	 * Returns the given job
+	 * @param id the job id ( eg '2' or '[2]' )
+	 * @return the job or null if invalid id or unknown job
+	 */
+	public BackgroundJob get(String id) {
+		String s = id.startsWith("[") && id.endsWith("]") ? id.substring(1, id.length() - 1) : id ;
+		try {
+			return get(Integer.parseInt(s));
+		} catch (NumberFormatException e) {
+			return null ;
+		}
+	}
+
+	/**
+	 * Removes the given job (the job is supposed to be finished)
+	 * @param job
+	 */
+	public synchronized void remove(BackgroundJob job) {
+		jobs.remove(job.getId());
+	}
+
+	/**
+	 * Returns the number of jobs still running
+	 * @return
+	 */
+	public synchronized int getRunningCount() {
+		int n = 0 ;
+		for ( BackgroundJob job : jobs.values() ) {
+			if ( job.isRunning() ) {
+				n++ ;
+			}
+		}
+		return n ;
+	}
+
+	/**
+	 * Waits for the end of all the jobs not yet waited and prints their output <br>
+	 * To be called before exiting in script mode (the jobs run on daemon threads)
+	 * @param out
+	 * @return true if all the jobs are DONE
+	 * @throws InterruptedException
+	 */
+	public boolean awaitAll(PrintWriter out) throws InterruptedException {
+		boolean ok = true ;
+		for ( BackgroundJob job : getJobs() ) {
+			job.await();
+			remove(job);
+			out.println("--- " + job.toString());
+			String output = job.getOutput();
+			if ( output.length() > 0 ) {
+				out.print(output.endsWith("\n") ? output : output + "\n");
+			}
+			if ( job.getStatus() != BackgroundJob.Status.DONE ) {
+				ok = false ;
+			}
+		}
+		out.flush();
+		return ok ;
+	}
+
+	/**
+	 * Prints the jobs finished since the last call and not yet waited <br>
+	 * A finished job is reported only once, its output remains available with 'wait'
+	 * @param out
+	 */
+	public synchronized void reportFinished(PrintWriter out) {
+		for ( BackgroundJob job : jobs.values() ) {
+			if ( ! job.isRunning() && ! job.isReported() ) {
+				job.setReported();
+				out.println(job.toString());
+			}
+		}
+		out.flush();
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * Representative session executed with the '--cds-dump' launch argument <br>
+ * The JVM is supposed to be launched with '-XX:ArchiveClassesAtExit=xxx.jsa' (see 'tt' and 'tl' scripts)
+ * in order to create a class-data-sharing archive containing all the classes loaded by the session <br>
+ * The session works in a temporary project : init, model and entity creation, model loading and checking, 
+ * templates listing and a small generation with a training bundle
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class CdsTrainingSession {
+
+	public static final String CDS_DUMP_ARG = "--cds-dump" ;
+
+	private static final String MODEL_NAME  = "training" ;
+	private static final String BUNDLE_NAME = "cds-training" ;
+
+	private static final List<String> TEMPLATES_CFG = Arrays.asList(
+			"# Bundle used to create the CDS archive",
+			"Entity text ; ${BEANNAME}.txt ; out ; entity_txt.vm ; * " );
+
+	private static final List<String> ENTITY_TEMPLATE = Arrays.asList(
+			"Entity $entity.name",
+			"#foreach( $attribute in $entity.attributes )",
+			" . $attribute.name : $attribute.type",
+			"#end" );
+
+	private final CommandProvider      commandProvider ;
+	private final CommandLineProcessor commandLineProcessor ;
+	private final PrintWriter          out ;
+
+	/**
+	 * Constructor
+	 * @param commandProvider
+	 * @param commandLineProcessor
+	 * @param out
+	 */
+	public CdsTrainingSession(CommandProvider commandProvider, CommandLineProcessor commandLineProcessor, PrintWriter out) {
+		super();
+		this.commandProvider = commandProvider ;
+		this.commandLineProcessor = commandLineProcessor ;
+		this.out = out ;
+	}
+
+	/**
+	 * Returns true if the launch arguments contain '--cds-dump'
+	 * @param args
+	 * @return
+	 */
+	public static boolean isRequested(String[] args) {
+		return Arrays.asList(args).contains(CDS_DUMP_ARG);
+	}
+
+	private void print(String message) {
+		out.println(message);
+		out.flush();
+	}
+
+	/**
+	 * Runs the training session in a temporary project (removed at the end)
+	 */
+	public void run() {
+		print("CDS training session...");
+		Environment environment = commandProvider.getEnvironment();
+		environment.setAutoConfirm(true);
+		Path projectDir = null ;
+		try {
+			projectDir = Files.createTempDirectory("telosys-cds");
+			String projectPath = projectDir.toAbsolutePath().toString();
+			process("cd " + projectPath);
+			process("h " + projectPath);
+			process("init");
+			process("nm " + MODEL_NAME);
+			process("ne Car");
+			process("ne Driver");
+			process("lm");
+			process("m " + MODEL_NAME);
+			process("le");
+			process("le --full");
+			process("cm");
+			createTrainingBundle(environment);
+			process("lb");
+			process("b " + BUNDLE_NAME);
+			process("b");
+			process("lt");
+			process("gen * *");
+			process("env");
+			process("ver");
+			process("?");
+			environment.flush();
+			print("CDS training session completed.");
+		} catch (IOException | TelosysToolsException e) {
+			print("CDS training session error : " + e.getMessage());
+		}
+		finally {
+			environment.setAutoConfirm(false);
+			if ( projectDir != null ) {
+				deleteQuietly(projectDir);
+			}
+		}
+	}
+
+	private void process(String commandLine) {
+		print("> " + commandLine);
+		commandLineProcessor.processLine(commandLine);
+	}
+
+	private void createTrainingBundle(Environment environment) throws IOException, TelosysToolsException {
+		File bundleFolder = new File(environment.getTelosysToolsCfg().getTemplatesFolderAbsolutePath(), BUNDLE_NAME);
+		Path bundleDir = Files.createDirectories(bundleFolder.toPath());
+		Files.write(bundleDir.resolve("templates.cfg"), TEMPLATES_CFG, StandardCharsets.UTF_8);
+		Files.write(bundleDir.resolve("entity_txt.vm"), ENTITY_TEMPLATE, StandardCharsets.UTF_8);
+		environment.invalidateBundlesIndex();
+	}
+
+	private void deleteQuietly(Path dir) {
+		try {
+			Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+				@Override
+				public FileVisitResult postVisitDirectory(Path d, IOException e) throws IOException {
+					Files.delete(d);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			print("Cannot delete temporary project '" + dir + "' : " + e.getMessage());
+		}
+	}
+}
@@ -18,6 +18,7 @@ package org.telosys.tools.cli;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.LinkedList;
 import java.util.List;
 
 import jline.console.ConsoleReader;
@@ -37,7 +38,7 @@ import org.telosys.tools.commons.bundles.TargetsDefinitions;
 public abstract class Command {
 
 	private final ConsoleReader consoleReader ;
-	private final PrintWriter out ;
+	private final PrintWriter console ;
 	private final Environment environment ;
 	
 	/**
@@ -48,7 +49,7 @@ public abstract class Command {
 	public Command(ConsoleReader consoleReader, Environment environment ) {
 		super();
 		this.consoleReader = consoleReader ;
-		this.out = new PrintWriter(consoleReader.getOutput()) ;
+		this.console = environment.getCommandProvider().getProjectContexts().getConsole() ; // shared buffered output
 		this.environment = environment ;
 	}
 	
@@ -98,11 +99,33 @@ public abstract class Command {
 		sb.append(Environment.LINE_SEPARATOR);
 	}
 
+	/**
+	 * Returns the output for the commands : the console or the output defined in the environment
+	 * @return
+	 */
+	private PrintWriter out() {
+		BackgroundJob.checkCancelled(); // cancellation point for background jobs
+		PrintWriter output = environment.getOutput();
+		return output != null ? output : console ;
+	}
+
+	/**
+	 * Marks the current command as failed and returns the given message (to be returned by the command)
+	 * @param message
+	 * @return
+	 */
+	protected String failure(String message) {
+		environment.setCommandFailed();
+		return message ;
+	}
+
 	protected String invalidUsage(String message) {
+		environment.setCommandFailed();
 		return "Invalid usage : " + message ;
 	}
 
 	protected int readChar() {
+		drainConsole();
 		try {
 			return consoleReader.readCharacter();
 		} catch (IOException e) {
@@ -111,6 +134,7 @@ public abstract class Command {
 		}
 	}
 	protected void backspace() {
+		drainConsole();
 		try {
 			consoleReader.backspace();
 		} catch (IOException e) {
@@ -122,27 +146,32 @@ public abstract class Command {
 	protected String readResponse() {
 		StringBuilder sb = new StringBuilder();
 		while ( true ) {
-			char c = (char) readChar();
+			int i = readChar();
+			if ( i < 0 ) {
+				// no more input ( eg daemon client or script )
+				throw new CancelCommandException("No response (end of input)");
+			}
+			char c = (char) i;
 			if ( c >= ' ' ) {
 				sb.append(c);
-				out.print(c);
-				out.flush();
+				out().print(c);
+				out().flush();
 			}
 			else {
 				switch(c) {
 				case '\n' :
 				case '\r' :
-					out.println("");
-					out.flush();
+					out().println("");
+					out().flush();
 					return sb.toString();
 				case '\b' :
 					backspace();
 					if ( sb.length() > 0 ) {
 						sb.setLength(sb.length() - 1); // back (remove last char)
-						out.print('\b');
-						out.print(' ');
-						out.print('\b');
-						out.flush();
+						out().print('\b');
+						out().print(' ');
+						out().print('\b');
+						out().flush();
 					}
 					break ;
 				}
@@ -150,31 +179,87 @@ public abstract class Command {
 		}
 	}
 	
+	/**
+	 * Asks for a confirmation (using the default output format of the environment)
+	 * @param message
+	 * @return true if confirmed
+	 */
 	protected boolean confirm(String message) {
-		out.print( message + " [y/n] ? " );
-		out.flush();
+		return confirm(message, environment.getOutputFormat());
+	}
+
+	/**
+	 * Asks for a confirmation <br>
+	 * No question in a structured output : confirmed only if auto-confirm is set ( '-y' )
+	 * @param message
+	 * @param format the output format of the command (with its format option if any)
+	 * @return true if confirmed
+	 */
+	protected boolean confirm(String message, OutputFormat format) {
+		if ( format != OutputFormat.TEXT ) {
+			return environment.isAutoConfirm() ; // no text in a structured output
+		}
+		if ( environment.getOutput() != null && ! environment.isAutoConfirm() ) {
+			// background job or concurrent execution : no console input
+			throw new CancelCommandException(message + " : no confirmation possible in a background job or with 'use' (launch with '-y')");
+		}
+		out().print( message + " [y/n] ? " );
+		out().flush();
+		if ( environment.isAutoConfirm() ) {
+			out().println("y");
+			out().flush();
+			return true ;
+		}
 		String r = readResponse() ;
 		return "Y".equalsIgnoreCase(r) ;
 	}
 
 	protected void print(String message) {
-		out.println(message);
-		out.flush();
+		out().println(message);
+		out().flush();
+	}
+	/**
+	 * Prints the given message and marks the current command as failed 
+	 * @param message
+	 */
+	protected void printFailure(String message) {
+		environment.setCommandFailed();
+		RecordPrinter printer = environment.getRecordPrinter();
+		if ( printer != null ) {
+			printer.printError(message);
+		}
+		else {
+			print(message);
+		}
 	}
 	protected void printError(String message) {
-		out.println("[ERROR] : " + message );
-		out.flush();
+		environment.setCommandFailed();
+		RecordPrinter printer = environment.getRecordPrinter();
+		if ( printer != null ) {
+			printer.printError(message);
+		}
+		else {
+			out().println("[ERROR] : " + message );
+			out().flush();
+		}
 	}
 	protected void printError(Exception ex) {
+		environment.setCommandFailed();
 		LastError.setError(ex);
-		out.println("[ERROR] Exception class   : " + ex.getClass().getSimpleName() );
-		out.println("[ERROR] Exception message : " + ex.getMessage() );
-		out.flush();
+		RecordPrinter printer = environment.getRecordPrinter();
+		if ( printer != null ) {
+			printer.printError(ex.getClass().getSimpleName() + " : " + ex.getMessage());
+		}
+		else {
+			out().println("[ERROR] Exception class   : " + ex.getClass().getSimpleName() );
+			out().println("[ERROR] Exception message : " + ex.getMessage() );
+			out().flush();
+		}
 	}
 	protected void printDebug(String message) {
 		if ( Trace.DEBUG ) {
-			out.println("[DEBUG] "+message);
-			out.flush();
+			out().println("[DEBUG] "+message);
+			out().flush();
 		}
 	}
 
@@ -186,12 +271,67 @@ public abstract class Command {
 	protected void printList(List<String> strings) {
 		if ( strings != null ) {
 			for ( String s : strings ) {
-				out.println(" . " + s);
+				out().println(" . " + s);
 			}
 		}
-		out.flush();
+		out().flush();
 	}	
 
+	/**
+	 * Waits until all the console output is written (before a direct use of the console reader)
+	 */
+	private void drainConsole() {
+		if ( environment.getOutput() == null ) {
+			environment.getCommandProvider().getProjectContexts().drainConsole();
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	// Output format ( '--json' or '--ndjson' )
+	//-------------------------------------------------------------------------
+	/**
+	 * Returns the output format for the current command : the format option if any 
+	 * ( '--json' or '--ndjson' ) or the default format of the environment 
+	 * @param args
+	 * @return
+	 */
+	protected OutputFormat getOutputFormat(String[] args) {
+		for ( String arg : args ) {
+			OutputFormat format = OutputFormat.fromOption(arg);
+			if ( format != null ) {
+				return format ;
+			}
+		}
+		return environment.getOutputFormat();
+	}
+
+	/**
+	 * Returns the given arguments without the format options ( '--json' or '--ndjson' ) 
+	 * @param args
+	 * @return
+	 */
+	protected String[] removeOutputFormatOptions(String[] args) {
+		List<String> list = new LinkedList<>();
+		for ( String arg : args ) {
+			if ( OutputFormat.fromOption(arg) == null ) {
+				list.add(arg);
+			}
+		}
+		return list.toArray(new String[list.size()]);
+	}
+
+	/**
+	 * Returns a new printer for the records of the current command <br>
+	 * The errors are printed as 'error' records until the end of the printer
+	 * @param format JSON or NDJSON
+	 * @return
+	 */
+	protected RecordPrinter newRecordPrinter(OutputFormat format) {
+		RecordPrinter printer = new RecordPrinter(this, format);
+		environment.setRecordPrinter(printer);
+		return printer ;
+	}
+
 	protected String getCurrentDirectory() {
 		return environment.getCurrentDirectory();
 	}
@@ -201,7 +341,7 @@ public abstract class Command {
 	//-------------------------------------------------------------------------
 	protected boolean checkDirectory(String dir) {
 		if (dir == null) {
-			print("Directory is null !");
+			printFailure("Directory is null !");
 			return false;
 		}
 		return checkDirectory(new File(dir) );
@@ -209,15 +349,15 @@ public abstract class Command {
 	
 	protected boolean checkDirectory(File file) {
 		if (file == null) {
-			print("Directory is null !");
+			printFailure("Directory is null !");
 			return false;
 		}
 		if ( ! file.exists() ) {
-			print("'" + file.getAbsolutePath() + "' doesn't exist !");
+			printFailure("'" + file.getAbsolutePath() + "' doesn't exist !");
 			return false;
 		}
 		if ( ! file.isDirectory()) {
-			print( "'" + file.getAbsolutePath() + "' is not a directory !" );
+			printFailure( "'" + file.getAbsolutePath() + "' is not a directory !" );
 			return false;
 		} 
 		return true ; // OK
@@ -231,7 +371,7 @@ public abstract class Command {
 			return true ;
 		}
 		else {
-			print( "Home directory must be set before using this command!" ) ;
+			printFailure( "Home directory must be set before using this command!" ) ;
 			return false ;
 		}
 	}	
@@ -273,7 +413,7 @@ public abstract class Command {
 			}
 		}
 		if ( ! ok ) {
-			print("Invalid usage : unexpected number of arguments");
+			printFailure("Invalid usage : unexpected number of arguments");
 		}
 		return ok ;
 	}
@@ -290,7 +430,7 @@ public abstract class Command {
 			return true ;
 		}
 		else {
-			print( "This command requires a model." ) ;
+			printFailure( "This command requires a model." ) ;
 			return false ;
 		}
 	}	
@@ -305,7 +445,7 @@ public abstract class Command {
 				return true ;
 			}
 			else {
-				print("This command requires a DSL model.");
+				printFailure("This command requires a DSL model.");
 			}
 		}
 		return false ;
@@ -375,7 +515,7 @@ public abstract class Command {
 			return true ;
 		}
 		else {
-			print( "Bundle-name must be set before using this command!" ) ;
+			printFailure( "Bundle-name must be set before using this command!" ) ;
 			return false ;
 		}
 	}	
@@ -403,7 +543,7 @@ public abstract class Command {
 	protected TargetsDefinitions getCurrentTargetsDefinitions() {
 		TelosysProject telosysProject = getTelosysProject();
 		try {
-			return telosysProject.getTargetDefinitions( getCurrentBundle() );
+			return environment.getTargetsDefinitionsCache().get(telosysProject, getCurrentBundle());
 		} catch (TelosysToolsException e) {
 			printError(e);
 			throw new CancelCommandException("Cannot get TargetsDefinitions");
@@ -418,7 +558,7 @@ public abstract class Command {
 			return true ;
 		}
 		else {
-			print( "GitHub store must be set before using this command!" ) ;
+			printFailure( "GitHub store must be set before using this command!" ) ;
 			return false ;
 		}
 	}	
@@ -439,7 +579,21 @@ public abstract class Command {
 	//-------------------------------------------------------------------------
 	
 	protected void updatePrompt() {
+		updatePrompt(environment);
+	}
+
+	/**
+	 * Updates the prompt with the state of the given environment (context, HOME, model, bundle)
+	 * @param environment
+	 */
+	protected void updatePrompt(Environment environment) {
+		if ( environment.getOutput() != null ) {
+			return ; // not executed in the console ( eg concurrent execution )
+		}
 		String prompt = Const.PROMPT_TEXT ;
+		if ( ! ProjectContexts.DEFAULT_CONTEXT.equals(environment.getContextName()) ) {
+			prompt = prompt + "@" + environment.getContextName() ;
+		}
 		if ( environment.getHomeDirectory() != null ) {
 			prompt = prompt + "#" ;
 		}
@@ -508,8 +662,7 @@ public abstract class Command {
 	 */
 	protected TelosysProject getTelosysProject() {
 		if ( checkHomeDirectoryDefined() ) {
-			String projectFullPath = environment.getHomeDirectory();
-			return new TelosysProject(projectFullPath);
+			return environment.getTelosysProject(); // one instance per HOME
 		}
 		return null ;
 	}
@@ -16,6 +16,7 @@
 package org.telosys.tools.cli;
 
 import java.io.PrintWriter;
+import java.util.List;
 
 import jline.console.ConsoleReader;
 
@@ -28,43 +29,136 @@ import jline.console.ConsoleReader;
 public class CommandLineProcessor {
 	
 	private final PrintWriter     out ;
+	private final ProjectContexts projectContexts ;
 	private final CommandProvider commandProvider ;
 	
 	/**
-	 * Constructor
+	 * Constructor : the commands are executed in the current project context
 	 * @param consoleReader
+	 * @param projectContexts
 	 */
-	public CommandLineProcessor(ConsoleReader consoleReader, CommandProvider commandProvider) {
+	public CommandLineProcessor(ConsoleReader consoleReader, ProjectContexts projectContexts) {
 		super();
-		this.out = new PrintWriter(consoleReader.getOutput());
+		this.out = projectContexts.getConsole();
+		this.projectContexts = projectContexts;
+		this.commandProvider = null;
+	}
+
+	/**
+	 * Constructor : the commands are executed with the given commands and output
+	 * @param out
+	 * @param commandProvider
+	 */
+	public CommandLineProcessor(PrintWriter out, CommandProvider commandProvider) {
+		super();
+		this.out = out;
+		this.projectContexts = null;
 		this.commandProvider = commandProvider;
 	}
 
+	private CommandProvider getCommandProvider() {
+		return projectContexts != null ? projectContexts.getCurrent() : commandProvider ;
+	}
+
 	/**
-	 * Processes the given line (try to interpret and execute the command) 
+	 * Processes the given line (try to interpret and execute the command or the chained commands) 
 	 * @param line
+	 * @return true if the command has been executed without error
 	 */
 	public boolean processLine( String line ) {
 		debug("(line='"+line+"')");
+		if ( projectContexts != null ) {
+			// interactive processor : report the background jobs finished and the environment 
+			// files not saved since the last line
+			projectContexts.getBackgroundJobs().reportFinished(out);
+			projectContexts.reportSaveErrors(out);
+		}
 		if ( line.trim().length() == 0 ) {
 			return false ;
 		}
+		String backgroundCommand = CommandLineUtil.getBackgroundCommand(line);
+		if ( backgroundCommand != null ) {
+			return processBackground(backgroundCommand);
+		}
+		List<String> chain = CommandLineUtil.splitChain(line);
+		if ( chain.size() == 1 ) {
+			return processCommand(chain.get(0));
+		}
+		// Chained commands : 'a ; b' (always), 'a && b' (if 'a' succeeded), 'a || b' (if 'a' failed)
+		boolean status = true ;
+		String operator = CommandLineUtil.SEQUENCE ;
+		int i = 0 ;
+		for ( String element : chain ) {
+			if ( i++ % 2 == 1 ) {
+				operator = element ;
+			}
+			else if ( element.length() > 0 ) {
+				if ( ( CommandLineUtil.AND.equals(operator) && ! status ) 
+						|| ( CommandLineUtil.OR.equals(operator) && status ) ) {
+					debug("(skipped : '" + element + "')");
+				}
+				else {
+					status = processCommand(element);
+				}
+			}
+		}
+		return status ;
+	}
+
+	/**
+	 * Launches the given command line as a background job in the current context
+	 * @param line
+	 * @return true if the job has been launched
+	 */
+	private boolean processBackground( String line ) {
+		if ( line.length() == 0 ) {
+			print("No command to launch in background");
+			return false ;
+		}
+		CommandProvider provider = getCommandProvider();
+		BackgroundJob job = provider.getProjectContexts().getBackgroundJobs().submit(provider, line);
+		print("[" + job.getId() + "] started");
+		return true ;
+	}
+
+	/**
+	 * Processes a single command
+	 * @param line
+	 * @return true if the command has been executed without error
+	 */
+	private boolean processCommand( String line ) {
 		String result ;
-		String[] args = CommandLineUtil.toArgs(line);
 		try {
+			String[] args = CommandLineUtil.toArgs(line);
 			debug("(args length = " + args.length +")");
 			String commandName = args[0];
 			debug("(commandName = '" + commandName +"')");
-			Command command = commandProvider.getCommand(commandName);
+			CommandProvider provider = getCommandProvider();
+			Command command = provider.getCommand(commandName);
 			if ( command != null ) {
+				Environment environment = provider.getEnvironment();
+				environment.resetCommandStatus();
+				CommandStats commandStats = provider.getProjectContexts().getCommandStats();
+				CommandStats.Sample sample = commandStats.start();
 				try {
 					result = command.execute(args);
 					print(result);
-					return true; // OK
+					return ! environment.isCommandFailed(); // OK if no error reported by the command
 				} catch (CancelCommandException cancelCommandEx ) {
 					// The command has been canceled, for example due to invalid arguments 
 					// => just print the messsage and continue
-					print(cancelCommandEx.getMessage());
+					RecordPrinter printer = environment.getRecordPrinter();
+					if ( printer != null ) {
+						// structured output in progress => error record and end of the output
+						printer.printError(cancelCommandEx.getMessage());
+						printer.end();
+					}
+					else {
+						print(cancelCommandEx.getMessage());
+					}
+				}
+				finally {
+					commandStats.stop(command.getName(), sample);
 				}
 			}
 			else {
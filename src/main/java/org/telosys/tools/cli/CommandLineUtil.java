@@ -16,13 +16,197 @@
 package org.telosys.tools.cli;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 public class CommandLineUtil {
 	
+	public static final String SEQUENCE = ";" ;
+	public static final String AND      = "&&" ;
+	public static final String OR       = "||" ;
+	public static final String BACKGROUND = "&" ;
+	
 	private CommandLineUtil() {
 	}
 	
+	/**
+	 * Returns the command line to be executed in background if the line ends with a single '&' <br>
+	 * eg : "gen * * &" --> "gen * *" , "gen * *" --> null , "gen * * &&" --> null
+	 * @param line
+	 * @return the line without the trailing '&' (or null if not a background command)
+	 */
+	public static String getBackgroundCommand(String line) {
+		String s = line.trim();
+		if ( s.endsWith(BACKGROUND) && ! s.endsWith(AND) ) {
+			return s.substring(0, s.length() - BACKGROUND.length()).trim();
+		}
+		return null ;
+	}
+
+	/**
+	 * Splits a line into commands and operators ( ';', '&&', '||' ) <br>
+	 * The operators are ignored between quotes and in the regular expressions of the criteria 
+	 * ( '/.../' starting an argument or a criterion, and closed before the next whitespace ) <br>
+	 * eg : "m foo && b jpa ; gen * *" --> [ "m foo", "&&", "b jpa", ";", "gen * *" ] <br>
+	 * eg : "le /A||B/ ; lt !/a;b/" --> [ "le /A||B/", ";", "lt !/a;b/" ]
+	 * @param line
+	 * @return a list alternating commands (trimmed, can be void) and operators 
+	 */
+	public static List<String> splitChain(String line) {
+		List<String> list = new LinkedList<>();
+		StringBuilder current = new StringBuilder();
+		char quote = 0 ;
+		int i = 0 ;
+		while ( i < line.length() ) {
+			char c = line.charAt(i);
+			if ( quote != 0 ) {
+				if ( c == quote ) {
+					quote = 0 ;
+				}
+			}
+			else if ( c == '"' || c == '\'' ) {
+				quote = c ;
+			}
+			else if ( c == '/' && isCriterionStart(line, i) && regexEnd(line, i) > 0 ) {
+				// regular expression kept as is ( eg '/A||B/' )
+				int end = regexEnd(line, i);
+				current.append(line, i, end);
+				i = end ;
+				continue ;
+			}
+			else {
+				String operator = null ;
+				if ( c == ';' ) {
+					operator = SEQUENCE ;
+				}
+				else if ( line.startsWith(AND, i) ) {
+					operator = AND ;
+				}
+				else if ( line.startsWith(OR, i) ) {
+					operator = OR ;
+				}
+				if ( operator != null ) {
+					list.add(current.toString().trim());
+					list.add(operator);
+					current.setLength(0);
+					i += operator.length();
+					continue ;
+				}
+			}
+			current.append(c);
+			i++ ;
+		}
+		list.add(current.toString().trim());
+		return list ;
+	}
+
+	/**
+	 * Returns true if the character at the given index starts a criterion 
+	 * ( at the beginning of an argument, after ',' or after a negation '!' )
+	 * @param line
+	 * @param i
+	 * @return
+	 */
+	private static boolean isCriterionStart(String line, int i) {
+		int previous = i - 1 ;
+		if ( previous >= 0 && line.charAt(previous) == '!' ) {
+			previous-- ; 
+		}
+		if ( previous < 0 ) {
+			return true ;
+		}
+		char c = line.charAt(previous);
+		return Character.isWhitespace(c) || c == ',' ;
+	}
+
+	/**
+	 * Returns the end of the regular expression starting at the given index ( index after the closing '/' ) 
+	 * @param line
+	 * @param start index of the opening '/'
+	 * @return the end index or -1 if not closed before the next whitespace 
+	 */
+	private static int regexEnd(String line, int start) {
+		for ( int i = start + 1 ; i < line.length() ; i++ ) {
+			char c = line.charAt(i);
+			if ( c == '/' ) {
+				return i + 1 ;
+			}
+			if ( Character.isWhitespace(c) ) {
+				return -1 ;
+			}
+		}
+		return -1 ;
+	}
+
+	/**
+	 * Splits a line into command chains separated by ';' ( the '&&' and '||' chains are kept together ) 
+	 * eg : "m foo && b jpa ; gen * *" --> [ "m foo && b jpa", "gen * *" ]
+	 * @param line
+	 * @return
+	 */
+	public static List<String> splitSequence(String line) {
+		List<String> list = new LinkedList<>();
+		StringBuilder current = new StringBuilder();
+		for ( String element : splitChain(line) ) {
+			if ( SEQUENCE.equals(element) ) {
+				list.add(current.toString().trim());
+				current.setLength(0);
+			}
+			else {
+				if ( AND.equals(element) || OR.equals(element) ) {
+					current.append(' ').append(element).append(' ');
+				}
+				else {
+					current.append(element);
+				}
+			}
+		}
+		list.add(current.toString().trim());
+		return list ;
+	}
+	
+	/**
+	 * Returns the given argument as it must be written in a command line to be parsed again 
+	 * as a single argument by 'toArgs' (and not split by 'splitChain') <br>
+	 * eg : "foo" --> "foo" , "my dir" --> "\"my dir\"" , "a;b" --> "\"a;b\"" , "" --> "\"\"" 
+	 * @param arg
+	 * @return
+	 */
+	public static String quote(String arg) {
+		if ( arg.length() > 0 && ! needsQuotes(arg) ) {
+			return arg ;
+		}
+		if ( arg.indexOf('"') < 0 ) {
+			return '"' + arg + '"' ;
+		}
+		if ( arg.indexOf('\'') < 0 ) {
+			return '\'' + arg + '\'' ;
+		}
+		// both quote characters : double quoted parts and single quoted '"' (concatenated by 'toArgs')
+		StringBuilder sb = new StringBuilder("\"");
+		for ( int i = 0 ; i < arg.length() ; i++ ) {
+			char c = arg.charAt(i);
+			if ( c == '"' ) {
+				sb.append("\"'\"'\"");
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static boolean needsQuotes(String arg) {
+		for ( int i = 0 ; i < arg.length() ; i++ ) {
+			char c = arg.charAt(i);
+			if ( Character.isWhitespace(c) || c == '"' || c == '\'' || c == ';' || c == '&' || c == '|' ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
     /**
      * Crack a command line.
      * @param toProcess the command line to process.
@@ -15,7 +15,9 @@
  */
 package org.telosys.tools.cli;
 
-import java.util.Hashtable;
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +27,7 @@ import org.telosys.tools.cli.commands.CdCommand;
 import org.telosys.tools.cli.commands.CheckDatabaseCommand;
 import org.telosys.tools.cli.commands.CheckGitHubCommand;
 import org.telosys.tools.cli.commands.CheckModelCommand;
+import org.telosys.tools.cli.commands.ConvertModelCommand;
 import org.telosys.tools.cli.commands.DeleteBundleCommand;
 import org.telosys.tools.cli.commands.DeleteEntityCommand;
 import org.telosys.tools.cli.commands.DeleteModelCommand;
@@ -43,6 +46,8 @@ import org.telosys.tools.cli.commands.HelpCommand;
 import org.telosys.tools.cli.commands.HomeCommand;
 import org.telosys.tools.cli.commands.InitCommand;
 import org.telosys.tools.cli.commands.InstallBundlesCommand;
+import org.telosys.tools.cli.commands.JobsCommand;
+import org.telosys.tools.cli.commands.KillCommand;
 import org.telosys.tools.cli.commands.ListBundlesCommand;
 import org.telosys.tools.cli.commands.ListDatabasesCommand;
 import org.telosys.tools.cli.commands.ListEntitiesCommand;
@@ -57,73 +62,93 @@ import org.telosys.tools.cli.commands.NewEntityCommand;
 import org.telosys.tools.cli.commands.NewModelCommand;
 import org.telosys.tools.cli.commands.PwdCommand;
 import org.telosys.tools.cli.commands.QuitCommand;
+import org.telosys.tools.cli.commands.StatsCommand;
 import org.telosys.tools.cli.commands.ThrowExceptionCommand;
+import org.telosys.tools.cli.commands.TimeCommand;
 import org.telosys.tools.cli.commands.UpdateDbModelCommand;
+import org.telosys.tools.cli.commands.UseCommand;
 import org.telosys.tools.cli.commands.VerCommand;
+import org.telosys.tools.cli.commands.WaitCommand;
 
 import jline.console.ConsoleReader;
 
 /**
  * Class for command instance providing <br>
- * Based on a Map : 'command name' --> 'command instance'
+ * Based on a Map : 'command name' --> 'command class' <br>
+ * Each command is instantiated at its first use ( no command creation at startup )
  * 
  * @author Laurent GUERIN 
  *
  */
 public class CommandProvider {
 
-	private final Map<String, Command> commands = new Hashtable<>();
+	private final ConsoleReader   consoleReader ;
+	private final ProjectContexts projectContexts ;
+	private final String          contextName ;
+	private final Environment     environment ;
 	
-	private final void register(Command command) {
-		commands.put(command.getName(), command);
+	// 'command name' --> 'command class' (in registration order)
+	private final Map<String, Class<? extends Command>> commandClasses = new LinkedHashMap<>();
+	// 'command name' --> 'command instance' (created on demand)
+	private final Map<String, Command> commands = new HashMap<>();
+	
+	private final void register(String commandName, Class<? extends Command> commandClass) {
+		commandClasses.put(commandName, commandClass);
 	}
 	
-	private final void init(ConsoleReader consoleReader, Environment environment) {
+	private final void init() {
 		
-		register(new ThrowExceptionCommand(consoleReader, environment)); // tex : FOR TESTS ONLY !
+		register("tex", ThrowExceptionCommand.class); // tex : FOR TESTS ONLY !
 		
 		// Global commands
-		register(new CdCommand(consoleReader, environment)); // cd
-		register(new EditCommand(consoleReader, environment)); // e
-		register(new EnvCommand(consoleReader, environment)); // env
-		register(new GuideCommand(consoleReader, environment)); // guide
-		register(new HelpCommand(consoleReader, environment)); // ? - help
-		register(new LsCommand(consoleReader, environment)); // ls
-		register(new PwdCommand(consoleReader, environment)); // pwd
-		register(new QuitCommand(consoleReader, environment)); // q
-		register(new ErrorCommand(consoleReader, environment)); // err
-		register(new VerCommand(consoleReader, environment)); // ver
+		register("use", UseCommand.class); // use : project contexts
+		register("jobs", JobsCommand.class); // jobs : background jobs
+		register("wait", WaitCommand.class); // wait
+		register("kill", KillCommand.class); // kill
+		register("stats", StatsCommand.class); // stats : commands statistics
+		register("time", TimeCommand.class); // time : resources consumed by a command
+		register("cd", CdCommand.class); // cd
+		register("e", EditCommand.class); // e
+		register("env", EnvCommand.class); // env
+		register("guide", GuideCommand.class); // guide
+		register("?", HelpCommand.class); // ? - help
+		register("ls", LsCommand.class); // ls
+		register("pwd", PwdCommand.class); // pwd
+		register("q", QuitCommand.class); // q
+		register("err", ErrorCommand.class); // err
+		register("ver", VerCommand.class); // ver
 		
 		// Project commands
-		register(new HomeCommand(consoleReader, environment)); // h 
-		register(new InitCommand(consoleReader, environment)); // init
-		register(new EditConfigCommand(consoleReader, environment)); // ecfg
-		register(new EditDatabasesCommand(consoleReader, environment)); // edb
+		register("h", HomeCommand.class); // h 
+		register("init", InitCommand.class); // init
+		register("ecfg", EditConfigCommand.class); // ecfg
+		register("edb", EditDatabasesCommand.class); // edb
 
 		// Database commands
-		register(new ListDatabasesCommand(consoleReader, environment)); // ldb
-		register(new CheckDatabaseCommand(consoleReader, environment)); // cdb
-		register(new NewDbModelCommand(consoleReader, environment)); // ndbm
-		register(new UpdateDbModelCommand(consoleReader, environment)); // udbm
+		register("ldb", ListDatabasesCommand.class); // ldb
+		register("cdb", CheckDatabaseCommand.class); // cdb
+		register("ndbm", NewDbModelCommand.class); // ndbm
+		register("udbm", UpdateDbModelCommand.class); // udbm
 		
 		// Model commands
-		register(new ModelCommand(consoleReader, environment));       // m 
-		register(new NewModelCommand(consoleReader, environment));    // nm
-		register(new ListModelsCommand(consoleReader, environment));  // lm 
-		register(new DeleteModelCommand(consoleReader, environment)); // dm 
-		register(new CheckModelCommand(consoleReader, environment));  // cm
-		register(new EditModelCommand(consoleReader, environment));   // em
+		register("m", ModelCommand.class);       // m 
+		register("nm", NewModelCommand.class);    // nm
+		register("lm", ListModelsCommand.class);  // lm 
+		register("dm", DeleteModelCommand.class); // dm 
+		register("cm", CheckModelCommand.class);  // cm
+		register("em", EditModelCommand.class);   // em
+		register("cvm", ConvertModelCommand.class); // cvm
 		
 		// Entity commands
-		register(new ListEntitiesCommand(consoleReader, environment)); // le : list entities [model-name]
-		register(new NewEntityCommand(consoleReader, environment));    // ne : new entity
-		register(new EditEntityCommand(consoleReader, environment));   // ee : edit entity
-		register(new DeleteEntityCommand(consoleReader, environment)); // de : delete entity
+		register("le", ListEntitiesCommand.class); // le : list entities [model-name]
+		register("ne", NewEntityCommand.class);    // ne : new entity
+		register("ee", EditEntityCommand.class);   // ee : edit entity
+		register("de", DeleteEntityCommand.class); // de : delete entity
 		
 		// GitHub store management
-		register(new GitHubCommand(consoleReader, environment)); // gh : gh [store-name] 
-		register(new ListGitHubCommand(consoleReader, environment)); // lgh [filter-criteria] 
-		register(new CheckGitHubCommand(consoleReader, environment)); // cgh 
+		register("gh", GitHubCommand.class); // gh : gh [store-name] 
+		register("lgh", ListGitHubCommand.class); // lgh [filter-criteria] 
+		register("cgh", CheckGitHubCommand.class); // cgh 
 		
 /**
 //		 or
@@ -139,20 +164,20 @@ public class CommandProvider {
 //		 
 **/
 		// Bundles commands
-		register(new InstallBundlesCommand(consoleReader, environment)); // ib : install  bundle(s) from GitHub 				
-		register(new ListBundlesCommand(consoleReader, environment)); // lb (list installed bundles)
-		register(new BundleCommand(consoleReader, environment)); // b set/print current bundle
-		register(new EditBundleCommand(consoleReader, environment)); // eb : edit bundle
-		register(new DeleteBundleCommand(consoleReader, environment)); // db : delete bundle
+		register("ib", InstallBundlesCommand.class); // ib : install  bundle(s) from GitHub 				
+		register("lb", ListBundlesCommand.class); // lb (list installed bundles)
+		register("b", BundleCommand.class); // b set/print current bundle
+		register("eb", EditBundleCommand.class); // eb : edit bundle
+		register("db", DeleteBundleCommand.class); // db : delete bundle
 
 		// Templates commands
-		register(new ListTemplatesCommand(consoleReader, environment)); // lt : list templates				
-		register(new ListResourcesCommand(consoleReader, environment)); // lr : list resources				
+		register("lt", ListTemplatesCommand.class); // lt : list templates				
+		register("lr", ListResourcesCommand.class); // lr : list resources				
 		// et (edit template --> .vm ) : ee foo --> edit foo.vm
 		// dt (delete template)
 		
 		// Generation management
-		register(new GenerateCommand(consoleReader, environment)); // gen : generates entities with templates				
+		register("gen", GenerateCommand.class); // gen : generates entities with templates				
 		
 		
 		// Launcher management
@@ -169,24 +194,81 @@ public class CommandProvider {
 	
 	/**
 	 * Constructor
+	 * @param consoleReader
+	 * @param projectContexts all the contexts of the session
+	 * @param contextName the name of the project context using these commands
 	 */
-	public CommandProvider(ConsoleReader consoleReader) {
+	public CommandProvider(ConsoleReader consoleReader, ProjectContexts projectContexts, String contextName) {
 		super();
-		Environment environment = new Environment(this); 
-		init(consoleReader, environment);
+		this.consoleReader = consoleReader ;
+		this.projectContexts = projectContexts ;
+		this.contextName = contextName ;
+		this.environment = new Environment(this); 
+		init();
+	}
+
+	/**
+	 * Returns all the project contexts of the session 
+	 * @return
+	 */
+	public final ProjectContexts getProjectContexts() {
+		return projectContexts ;
+	}
+
+	/**
+	 * Returns the name of the project context using these commands
+	 * @return
+	 */
+	public final String getContextName() {
+		return contextName ;
 	}
 
-	public final Command getCommand(String commandName) {
-		return commands.get(commandName);
+	/**
+	 * Returns the environment shared by all the commands of the context
+	 * @return
+	 */
+	public final Environment getEnvironment() {
+		return environment ;
+	}
+
+	/**
+	 * Returns the command instance for the given name (created at the first call)
+	 * @param commandName
+	 * @return the command or null if unknown
+	 */
+	public final synchronized Command getCommand(String commandName) {
+		Command command = commands.get(commandName);
+		if ( command == null ) {
+			Class<? extends Command> commandClass = commandClasses.get(commandName);
+			if ( commandClass != null ) {
+				command = createCommand(commandClass);
+				if ( ! commandName.equals(command.getName()) ) {
+					throw new IllegalStateException("Command '" + commandName + "' registered with class " 
+							+ commandClass.getSimpleName() + " (name '" + command.getName() + "')");
+				}
+				commands.put(commandName, command);
+			}
+		}
+		return command ;
 	}
 	
+	private Command createCommand(Class<? extends Command> commandClass) {
+		try {
+			Constructor<? extends Command> constructor = commandClass.getConstructor(ConsoleReader.class, Environment.class);
+			return constructor.newInstance(consoleReader, environment);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create command " + commandClass.getSimpleName(), e);
+		}
+	}
+	
+	/**
+	 * Returns all the commands (all the commands are instantiated)
+	 * @return
+	 */
 	public final List<Command> getAllCommands() {
 		List<Command> list = new LinkedList<>();
-		for ( Map.Entry<String, Command> entry : commands.entrySet() ) {
-			Command a = entry.getValue() ;
-			if ( ! list.contains(a)) {
-			    list.add(a);
-			}
+		for ( String commandName : commandClasses.keySet() ) {
+			list.add(getCommand(commandName));
 		}
 		return list ;
 	}
@@ -0,0 +1,125 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.telosys.tools.cli.commons.Histogram;
+import org.telosys.tools.cli.commons.ThreadMetrics;
+
+/**
+ * Statistics of the commands executed in the session (all contexts) <br>
+ * For each command name : wall time, CPU time and allocated bytes histograms
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class CommandStats {
+
+	/**
+	 * Resources consumed by a command 
+	 */
+	public static class CommandMetrics {
+		private final Histogram wallTime = new Histogram(); // nanoseconds
+		private final Histogram cpuTime = new Histogram(); // nanoseconds
+		private final Histogram allocatedBytes = new Histogram();
+
+		public Histogram getWallTime() {
+			return wallTime;
+		}
+		public Histogram getCpuTime() {
+			return cpuTime;
+		}
+		public Histogram getAllocatedBytes() {
+			return allocatedBytes;
+		}
+	}
+
+	/**
+	 * Start of a measurement in the current thread 
+	 */
+	public static class Sample {
+		private final long wallTime = System.nanoTime();
+		private final long cpuTime = ThreadMetrics.getCpuTime();
+		private final long allocatedBytes = ThreadMetrics.getAllocatedBytes();
+	}
+
+	// 'command name' --> 'metrics' (sorted by name)
+	private final Map<String, CommandMetrics> metrics = new TreeMap<>();
+
+	/**
+	 * Starts a measurement (to be stopped in the same thread)
+	 * @return
+	 */
+	public Sample start() {
+		return new Sample();
+	}
+
+	/**
+	 * Stops the given measurement and records the resources consumed by the command 
+	 * @param commandName
+	 * @param sample
+	 */
+	public void stop(String commandName, Sample sample) {
+		long wallTime = System.nanoTime() - sample.wallTime ;
+		long cpuTime = ThreadMetrics.getCpuTime() - sample.cpuTime ;
+		long allocatedBytes = ThreadMetrics.getAllocatedBytes() - sample.allocatedBytes ;
+		CommandMetrics commandMetrics = getOrCreate(commandName);
+		commandMetrics.wallTime.record(wallTime);
+		if ( sample.cpuTime >= 0 ) {
+			commandMetrics.cpuTime.record(cpuTime);
+		}
+		if ( sample.allocatedBytes >= 0 ) {
+			commandMetrics.allocatedBytes.record(allocatedBytes);
+		}
+	}
+
+	private synchronized CommandMetrics getOrCreate(String commandName) {
+		CommandMetrics commandMetrics = metrics.get(commandName);
+		if ( commandMetrics == null ) {
+			commandMetrics = new CommandMetrics();
+			metrics.put(commandName, commandMetrics);
+		}
+		return commandMetrics ;
+	}
+
+	/**
+	 * Returns the names of the commands executed (sorted)
+	 * @return
+	 */
+	public synchronized List<String> getCommandNames() {
+		return new ArrayList<>(metrics.keySet());
+	}
+
+	/**
+	 * Returns the metrics of the given command 
+	 * @param commandName
+	 * @return the metrics or null if the command has never been executed
+	 */
+	public synchronized CommandMetrics get(String commandName) {
+		return metrics.get(commandName);
+	}
+
+	/**
+	 * Clears all the statistics
+	 */
+	public synchronized void clear() {
+		metrics.clear();
+	}
+}
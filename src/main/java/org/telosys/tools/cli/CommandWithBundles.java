@@ -17,9 +17,7 @@ package org.telosys.tools.cli;
 
 import java.util.List;
 
-import org.telosys.tools.api.TelosysProject;
 import org.telosys.tools.commons.TelosysToolsException;
-import org.telosys.tools.commons.bundles.BundlesNames;
 
 import jline.console.ConsoleReader;
 
@@ -41,15 +39,15 @@ public abstract class CommandWithBundles extends Command {
 	}
 
 	/**
-	 * Returns a list containing the names of all bundles installed in the current project
+	 * Returns a list containing the names of the bundles installed in the current project
+	 * and matching the command arguments (if any) <br>
+	 * The names come from the bundles index (the templates folder is not scanned for each call)
+	 * @param args
 	 * @return
 	 * @throws TelosysToolsException
 	 */
 	protected final List<String> getInstalledBundles(String[] args) throws TelosysToolsException {
-		TelosysProject telosysProject = getTelosysProject();
-		// get all installed bundles
-		BundlesNames bundlesNames = telosysProject.getInstalledBundles();
-		return bundlesNames.filter(args);
+		return getEnvironment().getBundlesIndex().filter(args);
 	}
 
 }
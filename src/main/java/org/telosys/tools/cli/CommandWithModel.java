@@ -16,7 +16,6 @@
 package org.telosys.tools.cli;
 
 import java.io.File;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -64,20 +63,18 @@ public abstract class CommandWithModel extends Command {
 	}
 	
 	/**
-	 * Try to found a unique model file matching the given model name pattern
+	 * Try to found a unique model file matching the given model name (exact name or name prefix)
 	 * @param modelNamePattern
 	 * @return the file or null if not found or ambiguous
 	 */
 	protected File findModelFile(String modelNamePattern) {
-		TelosysProject telosysProject = getTelosysProject();
 		try {
-			List<File> models = telosysProject.getModels();
-			List<File> modelsFound = findModelFiles(models, modelNamePattern);
+			List<File> modelsFound = getEnvironment().getModelIndex().findModelFiles(modelNamePattern);
 			if ( modelsFound.isEmpty() ) {
-				print("No model for '" + modelNamePattern + "'") ;
+				printFailure("No model for '" + modelNamePattern + "'") ;
 			}
 			else if ( modelsFound.size() > 1 ) {
-				print("Ambiguous : " + modelsFound.size() + " models found") ;
+				printFailure("Ambiguous : " + modelsFound.size() + " models found") ;
 			}
 			else {
 				return modelsFound.get(0);
@@ -88,34 +85,20 @@ public abstract class CommandWithModel extends Command {
 		return null ;
 	}
 	
-	private List<File> findModelFiles(List<File> models, String modelNamePattern) {
-		List<File> modelsFound = new LinkedList<>();
-		for ( File f : models ) {
-			if  ( f.exists() && f.isFile() ) {
-				if ( f.getName().contains(modelNamePattern) ) {
-					modelsFound.add(f);
-				}
-			}
-		}
-		return modelsFound ;
-	}
-	
 	/**
 	 * Try to find the model file for the given model name (print errors if any)
 	 * @param modelName the model name with or without its suffix ( eg 'foo', 'foo.model', 'foo.dbmodel', etc )
 	 * @return the model file (or null if not found or ambiguous) 
 	 */
 	protected File getModelFile(String modelName) {
-		TelosysProject telosysProject = getTelosysProject();
-		
 		try {
-			File modelFile = telosysProject.getModelFile(modelName);
+			File modelFile = getEnvironment().getModelIndex().getModelFile(modelName);
 			if ( modelFile == null ) {
-				print("Model '" + modelName + "' not found.") ;
+				printFailure("Model '" + modelName + "' not found.") ;
 			}
 			return modelFile ;
 		} catch (TelosysToolsException e) {
-			print(e.getMessage()); // Ambiguous model name
+			printFailure(e.getMessage()); // Ambiguous model name
 			return null ;
 		}
 	}
@@ -128,7 +111,7 @@ public abstract class CommandWithModel extends Command {
 	protected Model loadModel(File modelFile) {
 		TelosysProject telosysProject = getTelosysProject();
 		try {
-			return telosysProject.loadModel(modelFile);
+			return getEnvironment().getModelLoader().loadModel(telosysProject, modelFile);
 		} catch (TelosysToolsException ex) {
 			if ( ex instanceof TelosysModelException ) {
 				printError("Invalid model !");
@@ -136,9 +119,18 @@ public abstract class CommandWithModel extends Command {
 				TelosysModelException tme = (TelosysModelException) ex ;
 				Map<String,String> parsingErrors = tme.getParsingErrors();
 				if ( parsingErrors != null ) {
-					print( parsingErrors.size() + " parsing error(s)" );
+					boolean records = getEnvironment().getRecordPrinter() != null ; // structured output
+					if ( ! records ) {
+						print( parsingErrors.size() + " parsing error(s)" );
+					}
 					for ( Map.Entry<String,String> entry : parsingErrors.entrySet() ) {
-						print( "'" + entry.getKey() + "' : " + entry.getValue() );
+						String parsingError = "'" + entry.getKey() + "' : " + entry.getValue() ;
+						if ( records ) {
+							printError(parsingError);
+						}
+						else {
+							print(parsingError);
+						}
 					}					
 				}
 			}
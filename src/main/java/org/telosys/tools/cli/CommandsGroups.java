@@ -48,6 +48,12 @@ public class CommandsGroups {
 		
 		String name = "General commands" ;
 		commands.add("?");
+		commands.add("use");
+		commands.add("jobs");
+		commands.add("wait");
+		commands.add("kill");
+		commands.add("stats");
+		commands.add("time");
 		commands.add("pwd");
 		commands.add("cd");
 		commands.add("ls");
@@ -83,6 +89,7 @@ public class CommandsGroups {
 		commands.add("lm");
 		commands.add("em");
 		commands.add("cm");
+		commands.add("cvm");
 		commands.add("dm");
 		
 		return new CommandsGroup(name, commands);
@@ -0,0 +1,162 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Session-wide console output with a large buffer and a background writer <br>
+ * The characters written are accumulated in the buffer and written to the console 
+ * by the 'console-output' thread in batches (at each end of line burst or flush request) <br>
+ * 'flush()' doesn't block, 'drain()' waits until all the characters are written 
+ * (to be called before reading the console or printing the prompt)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ConsoleOutput extends Writer {
+
+	private static final int INITIAL_CAPACITY = 16 * 1024 ;
+	private static final int MAX_PENDING      = 1024 * 1024 ; // chars (the writers wait beyond this limit)
+
+	private final Writer target ;
+	private final Object lock = new Object();
+	private StringBuilder pending = new StringBuilder(INITIAL_CAPACITY);
+	private StringBuilder writing = new StringBuilder(INITIAL_CAPACITY);
+	private boolean       signaled = false ;
+	private boolean       busy = false ;
+
+	/**
+	 * Constructor (starts the background writer)
+	 * @param target the console writer 
+	 */
+	public ConsoleOutput(Writer target) {
+		super();
+		this.target = target ;
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		}, "console-output");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		synchronized (lock) {
+			while ( pending.length() >= MAX_PENDING ) {
+				signal();
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while writing to the console");
+				}
+			}
+			pending.append(cbuf, off, len);
+			for ( int i = off + len - 1 ; i >= off ; i-- ) {
+				if ( cbuf[i] == '\n' ) {
+					signal(); // end of line => can be written 
+					break ;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Requests the writing of the pending characters (doesn't wait)
+	 */
+	@Override
+	public void flush() {
+		synchronized (lock) {
+			if ( pending.length() > 0 ) {
+				signal();
+			}
+		}
+	}
+
+	private void signal() {
+		if ( ! signaled ) {
+			signaled = true ;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until all the pending characters are written to the console
+	 */
+	public void drain() {
+		synchronized (lock) {
+			boolean interrupted = false ;
+			while ( pending.length() > 0 || busy ) {
+				signal();
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true ;
+				}
+			}
+			if ( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		drain();
+	}
+
+	private void writeLoop() {
+		while ( true ) {
+			synchronized (lock) {
+				while ( ! signaled || pending.length() == 0 ) {
+					signaled = false ;
+					lock.notifyAll(); // nothing to write (for 'drain')
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return ;
+					}
+				}
+				// swap the buffers : the writers can continue during the console output
+				StringBuilder sb = writing ;
+				writing = pending ;
+				pending = sb ;
+				signaled = false ;
+				busy = true ;
+				lock.notifyAll(); // room for the writers
+			}
+			try {
+				target.write(writing.toString());
+				target.flush();
+			} catch (IOException e) {
+				// console not available : the characters are lost
+			}
+			synchronized (lock) {
+				writing.setLength(0);
+				if ( writing.capacity() > MAX_PENDING ) {
+					writing = new StringBuilder(INITIAL_CAPACITY);
+				}
+				busy = false ;
+				lock.notifyAll();
+			}
+		}
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thin client for the daemon ( launched with '--client command-line' ) <br>
+ * Sends the command line to the daemon, streams the output back and returns the exit status 
+ * of the command line <br>
+ * See also the 'tc' shell script (same protocol without JVM startup)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DaemonClient {
+
+	public static final String CLIENT_ARG = "--client" ;
+
+	/**
+	 * Private constructor
+	 */
+	private DaemonClient() {
+	}
+
+	/**
+	 * Returns true if the first launch argument is '--client'
+	 * @param args
+	 * @return
+	 */
+	public static boolean isRequested(String[] args) {
+		return args.length > 0 && CLIENT_ARG.equals(args[0]) ;
+	}
+
+	/**
+	 * Sends the command line to the daemon and prints the output
+	 * @param args '--client' followed by the command line 
+	 * @return the exit status sent by the daemon (0 if the command line has been executed without error)
+	 */
+	public static int run(String[] args) {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 1 ; i < args.length ; i++ ) {
+			if ( i > 1 ) {
+				sb.append(' ');
+			}
+			sb.append(args[i]);
+		}
+		try {
+			DaemonInfo daemonInfo = DaemonInfo.read();
+			if ( daemonInfo == null ) {
+				System.err.println("No Telosys CLI daemon (no file '" + DaemonInfo.getFile() + "')");
+				return 1 ;
+			}
+			try ( Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemonInfo.getPort()) ) {
+				final OutputStream socketOut = socket.getOutputStream();
+				socketOut.write((daemonInfo.getToken() + "\n" + sb.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+				socketOut.flush();
+				return copyOutput(socket.getInputStream());
+			}
+		} catch (IOException e) {
+			System.err.println("Cannot send command to the daemon : " + e.getMessage());
+			return 1 ;
+		}
+	}
+
+	/**
+	 * Copies the command output to the standard output until the status marker 
+	 * @param in
+	 * @return the exit status following the marker (or 1 if no status)
+	 * @throws IOException
+	 */
+	private static int copyOutput(InputStream in) throws IOException {
+		byte[] buffer = new byte[8192];
+		StringBuilder status = null ;
+		int n ;
+		while ( ( n = in.read(buffer) ) >= 0 ) {
+			int end = n ;
+			if ( status == null ) {
+				for ( int i = 0 ; i < n ; i++ ) {
+					if ( buffer[i] == TelosysDaemon.STATUS_MARKER ) {
+						status = new StringBuilder();
+						end = i ;
+						break ;
+					}
+				}
+				System.out.write(buffer, 0, end);
+				System.out.flush();
+			}
+			if ( status != null ) {
+				int start = end < n && buffer[end] == TelosysDaemon.STATUS_MARKER ? end + 1 : 0 ;
+				status.append(new String(buffer, start, n - start, StandardCharsets.US_ASCII));
+			}
+		}
+		try {
+			return status != null ? Integer.parseInt(status.toString().trim()) : TelosysDaemon.STATUS_ERROR ;
+		} catch (NumberFormatException e) {
+			return TelosysDaemon.STATUS_ERROR ;
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+/**
+ * Connection information of the running daemon ( port and token ) <br>
+ * Stored in the user home directory ( file '.telosys-cli-daemon' readable by the user only if possible ) <br>
+ * The token is required to avoid commands from other local users (the daemon listens on localhost TCP)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DaemonInfo {
+
+	private static final String DAEMON_FILE_NAME = ".telosys-cli-daemon" ;
+	private static final String PORT  = "port" ;
+	private static final String TOKEN = "token" ;
+
+	private final int    port ;
+	private final String token ;
+
+	/**
+	 * Constructor
+	 * @param port
+	 * @param token
+	 */
+	public DaemonInfo(int port, String token) {
+		super();
+		this.port = port;
+		this.token = token;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Returns a new random token 
+	 * @return
+	 */
+	public static String newToken() {
+		byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder sb = new StringBuilder();
+		for ( byte b : bytes ) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the daemon file ( '.telosys-cli-daemon' in the user home directory )
+	 * @return
+	 */
+	public static File getFile() {
+		return new File(System.getProperty("user.home"), DAEMON_FILE_NAME);
+	}
+
+	/**
+	 * Writes the information in the daemon file
+	 * @throws IOException
+	 */
+	public void write() throws IOException {
+		File file = getFile();
+		Files.deleteIfExists(file.toPath());
+		Files.createFile(file.toPath());
+		try {
+			Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-------"));
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system
+		}
+		Properties properties = new Properties();
+		properties.setProperty(PORT, String.valueOf(port));
+		properties.setProperty(TOKEN, token);
+		try ( OutputStream out = Files.newOutputStream(file.toPath()) ) {
+			properties.store(out, "Telosys CLI daemon");
+		}
+	}
+
+	/**
+	 * Reads the information from the daemon file
+	 * @return the information or null if no daemon file
+	 * @throws IOException
+	 */
+	public static DaemonInfo read() throws IOException {
+		File file = getFile();
+		if ( ! file.exists() ) {
+			return null ;
+		}
+		Properties properties = new Properties();
+		try ( InputStream in = Files.newInputStream(file.toPath()) ) {
+			properties.load(in);
+		}
+		try {
+			return new DaemonInfo(Integer.parseInt(properties.getProperty(PORT, "")), properties.getProperty(TOKEN, ""));
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid daemon file '" + file + "'", e);
+		}
+	}
+
+	/**
+	 * Deletes the daemon file 
+	 */
+	public static void delete() {
+		try {
+			Files.deleteIfExists(getFile().toPath());
+		} catch (IOException e) {
+			// ignored
+		}
+	}
+}
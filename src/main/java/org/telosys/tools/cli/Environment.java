@@ -16,12 +16,19 @@
 package org.telosys.tools.cli;
 
 import java.io.File;
+import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Properties;
 
 import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.cli.bundles.BundlesIndex;
+import org.telosys.tools.cli.bundles.TargetsDefinitionsCache;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.cli.model.ModelIndex;
+import org.telosys.tools.cli.model.ModelLoader;
+import org.telosys.tools.cli.model.ModelValidator;
 import org.telosys.tools.commons.FileUtil;
 import org.telosys.tools.commons.PropertiesManager;
 import org.telosys.tools.commons.TelosysToolsException;
@@ -48,6 +55,9 @@ public class Environment {
 	private final OSType osType ;
 	private final String editorCommand ;
 	private final String originalDirectory ;
+	private final ModelLoader modelLoader ;
+	private final ModelValidator modelValidator ;
+	private final TargetsDefinitionsCache targetsDefinitionsCache ;
 
 	// alterable attributes
 	private       String homeDirectory ;
@@ -55,6 +65,18 @@ public class Environment {
 	private       String currentGitHubStore = DEFAULT_GITHUB_STORE ;
 	private       String currentModel ;
 	private       String currentBundle ;
+	private       ModelIndex modelIndex ;
+	private       BundlesIndex bundlesIndex ;
+	private       TelosysProject  telosysProject ;
+	private       TelosysToolsCfg telosysToolsCfg ;
+	private       FileStamp       telosysToolsCfgStamp ;
+	private volatile boolean      autoConfirm = false ;
+	private volatile OutputFormat outputFormat = OutputFormat.TEXT ;
+	// state of the command executed by the current thread (console, concurrent execution or background job)
+	private final ThreadLocal<PrintWriter> output = new ThreadLocal<>();
+	private final ThreadLocal<Boolean>     commandFailed = new ThreadLocal<>();
+	private final ThreadLocal<RecordPrinter> recordPrinter = new ThreadLocal<>();
+	private final ThreadLocal<Snapshot>      snapshot = new ThreadLocal<>();
 	
 	/**
 	 * Constructor
@@ -72,6 +94,9 @@ public class Environment {
 		this.osName = System.getProperty("os.name");
 		this.osType = findOSType(this.osName); 
 		this.editorCommand = findEditorCommand(this.osType);
+		this.modelLoader = new ModelLoader();
+		this.modelValidator = new ModelValidator();
+		this.targetsDefinitionsCache = new TargetsDefinitionsCache();
 
 		// alterable attributes
 		this.currentDirectory   = originalDirectory ;
@@ -143,14 +168,23 @@ public class Environment {
 	 * @return the specific command or null if nout found
 	 */
 	private String findSpecificEditorCommand() {
-		String cmd = null ;
+		return loadTelosysCliConfig().getProperty(EDITOR_COMMAND);
+	}
+
+	/**
+	 * Loads the properties defined in the configuration file
+	 * @return the properties (void if no configuration file)
+	 */
+	private Properties loadTelosysCliConfig() {
 		File configFile = findTelosysCliConfigFile();
 		if ( configFile != null ) {
 			PropertiesManager pm = new PropertiesManager(configFile);
 			Properties p = pm.load();
-			cmd = p.getProperty(EDITOR_COMMAND);
+			if ( p != null ) {
+				return p ;
+			}
 		}
-		return cmd ;
+		return new Properties();
 	}
 
 	/**
@@ -276,6 +310,110 @@ public class Environment {
 		return originalDirectory;
 	}
 
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns true if the confirmations are automatic (no question to the user)
+	 * @return
+	 */
+	public boolean isAutoConfirm() {
+		return autoConfirm;
+	}
+
+	public void setAutoConfirm(boolean autoConfirm) {
+		this.autoConfirm = autoConfirm;
+	}
+
+	/**
+	 * Returns the default output format for the listing and generation commands
+	 * @return
+	 */
+	public OutputFormat getOutputFormat() {
+		return outputFormat;
+	}
+
+	public void setOutputFormat(OutputFormat outputFormat) {
+		this.outputFormat = outputFormat;
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Resets the status of the command to be executed (by the current thread)
+	 */
+	public void resetCommandStatus() {
+		commandFailed.remove();
+		recordPrinter.remove();
+	}
+
+	/**
+	 * Marks the command in progress (in the current thread) as failed (error or invalid usage)
+	 */
+	public void setCommandFailed() {
+		commandFailed.set(Boolean.TRUE);
+	}
+
+	/**
+	 * Returns true if the last command executed by the current thread has failed
+	 * @return
+	 */
+	public boolean isCommandFailed() {
+		return commandFailed.get() != null ;
+	}
+
+	/**
+	 * Returns the records printer of the command in progress (in the current thread) if any
+	 * @return the printer or null for a text output
+	 */
+	public RecordPrinter getRecordPrinter() {
+		return recordPrinter.get();
+	}
+
+	/**
+	 * Sets the records printer of the command in progress (in the current thread) <br>
+	 * While a printer is set the errors are printed as 'error' records
+	 * @param printer the printer or null for a text output
+	 */
+	public void setRecordPrinter(RecordPrinter printer) {
+		if ( printer != null ) {
+			this.recordPrinter.set(printer);
+		}
+		else {
+			this.recordPrinter.remove();
+		}
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the output used by the commands executed in the current thread instead of the console (if any)
+	 * @return the output or null for the console
+	 */
+	public PrintWriter getOutput() {
+		return output.get();
+	}
+
+	/**
+	 * Sets the output to be used by the commands executed in the current thread instead of the console 
+	 * ( eg to capture a concurrent execution or a background job ) <br>
+	 * A command with a captured output cannot interact with the user (the confirmations are refused without auto-confirm)
+	 * @param output the output or null for the console
+	 */
+	public void setOutput(PrintWriter output) {
+		if ( output != null ) {
+			this.output.set(output);
+		}
+		else {
+			this.output.remove();
+		}
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the name of the project context using this environment
+	 * @return
+	 */
+	public String getContextName() {
+		return commandProvider.getContextName();
+	}
+
 	//---------------------------------------------------------------------------------
 	public CommandProvider getCommandProvider() {
 		return commandProvider;
@@ -285,6 +423,156 @@ public class Environment {
 		return commandsGroups;
 	}
 
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the model loader (keeps the parsed entities for the whole session)
+	 * @return
+	 */
+	public ModelLoader getModelLoader() {
+		return modelLoader;
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the model validator (keeps the validation results for the whole session)
+	 * @return
+	 */
+	public ModelValidator getModelValidator() {
+		return modelValidator;
+	}
+
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the cache for the bundles targets definitions
+	 * @return
+	 */
+	public TargetsDefinitionsCache getTargetsDefinitionsCache() {
+		return targetsDefinitionsCache;
+	}
+
+	//---------------------------------------------------------------------------------
+	// Current project 
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the project for the current HOME (a single instance per HOME)
+	 * @return the project or null if HOME is not defined
+	 */
+	public synchronized TelosysProject getTelosysProject() {
+		Snapshot job = snapshot.get();
+		if ( job != null ) {
+			return job.getTelosysProject();
+		}
+		if ( telosysProject == null && homeDirectory != null ) {
+			telosysProject = new TelosysProject(homeDirectory);
+		}
+		return telosysProject ;
+	}
+
+	/**
+	 * Returns the configuration of the current project <br>
+	 * The configuration is loaded again only if the configuration file has changed 
+	 * @return
+	 * @throws TelosysToolsException if HOME is not defined or if the configuration cannot be loaded
+	 */
+	public synchronized TelosysToolsCfg getTelosysToolsCfg() throws TelosysToolsException {
+		Snapshot job = snapshot.get();
+		if ( job != null && ! job.isHome(homeDirectory) ) {
+			return job.getTelosysToolsCfg();
+		}
+		if ( homeDirectory == null ) {
+			throw new TelosysToolsException("Home directory is not defined");
+		}
+		FileStamp stamp = new FileStamp(new File(FileUtil.buildFilePath(homeDirectory, 
+				FileUtil.buildFilePath(Const.TELOSYS_TOOLS_FOLDER, Const.TELOSYS_TOOLS_CFG))));
+		if ( telosysToolsCfg != null && ! stamp.equals(telosysToolsCfgStamp) ) {
+			// Configuration file modified ( eg with 'ecfg' ) 
+			invalidateTelosysProject();
+		}
+		if ( telosysToolsCfg == null ) {
+			telosysToolsCfg = getTelosysProject().getTelosysToolsCfg();
+			telosysToolsCfgStamp = stamp ;
+		}
+		return telosysToolsCfg ;
+	}
+
+	/**
+	 * Invalidates the current project and its configuration (to be called if the configuration changes)
+	 */
+	public synchronized void invalidateTelosysProject() {
+		telosysProject = null ;
+		telosysToolsCfg = null ;
+		telosysToolsCfgStamp = null ;
+		resetModelIndex(); // the models folder is defined in the configuration
+		resetBundlesIndex(); // the templates folder is defined in the configuration
+		targetsDefinitionsCache.invalidateAll();
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the models index for the current HOME (created at the first call)
+	 * @return
+	 * @throws TelosysToolsException if HOME is not defined or if its configuration cannot be loaded
+	 */
+	public synchronized ModelIndex getModelIndex() throws TelosysToolsException {
+		Snapshot job = snapshot.get();
+		if ( job != null && ! job.isHome(homeDirectory) ) {
+			return job.getModelIndex();
+		}
+		if ( modelIndex == null ) {
+			modelIndex = new ModelIndex(new File(getTelosysToolsCfg().getModelsFolderAbsolutePath()));
+		}
+		return modelIndex ;
+	}
+
+	/**
+	 * Invalidates the models index (to be called after a model creation or deletion)
+	 */
+	public synchronized void invalidateModelIndex() {
+		if ( modelIndex != null ) {
+			modelIndex.invalidate();
+		}
+	}
+
+	private synchronized void resetModelIndex() {
+		if ( modelIndex != null ) {
+			modelIndex.close();
+			modelIndex = null ;
+		}
+	}
+
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns the bundles index for the current HOME (created at the first call)
+	 * @return
+	 * @throws TelosysToolsException if HOME is not defined or if its configuration cannot be loaded
+	 */
+	public synchronized BundlesIndex getBundlesIndex() throws TelosysToolsException {
+		Snapshot job = snapshot.get();
+		if ( job != null && ! job.isHome(homeDirectory) ) {
+			return job.getBundlesIndex();
+		}
+		if ( bundlesIndex == null ) {
+			bundlesIndex = new BundlesIndex(new File(getTelosysToolsCfg().getTemplatesFolderAbsolutePath()));
+		}
+		return bundlesIndex ;
+	}
+
+	/**
+	 * Invalidates the bundles index (to be called after a bundle installation or deletion)
+	 */
+	public synchronized void invalidateBundlesIndex() {
+		if ( bundlesIndex != null ) {
+			bundlesIndex.invalidate();
+		}
+	}
+
+	private synchronized void resetBundlesIndex() {
+		if ( bundlesIndex != null ) {
+			bundlesIndex.close();
+			bundlesIndex = null ;
+		}
+	}
 
 	//---------------------------------------------------------------------------------
 	// HOME directory
@@ -294,7 +582,8 @@ public class Environment {
 	 * @return
 	 */
 	public String getHomeDirectory() {
-		return homeDirectory;
+		Snapshot job = snapshot.get();
+		return job != null ? job.homeDirectory : homeDirectory;
 	}
 
 	/**
@@ -309,7 +598,13 @@ public class Environment {
 	 * @param homeDirectory
 	 */
 	public void setHomeDirectory(String directory) {
+		Snapshot job = snapshot.get();
+		if ( job != null ) {
+			job.setHomeDirectory(directory); // background job : the session HOME is unchanged
+			return ;
+		}
 		this.homeDirectory = directory;
+		invalidateTelosysProject();
 		// Reset the current environment according with the new HOME
 		resetCurrentEnvironment() ; 
 	}
@@ -368,7 +663,8 @@ public class Environment {
 	 * @return
 	 */
 	public String getCurrentModel() {
-		return currentModel;
+		Snapshot job = snapshot.get();
+		return job != null ? job.currentModel : currentModel;
 	}
 
 	/**
@@ -376,6 +672,11 @@ public class Environment {
 	 * @param modelName
 	 */
 	public void setCurrentModel(String modelName) {
+		Snapshot job = snapshot.get();
+		if ( job != null ) {
+			job.currentModel = modelName; // background job : not saved
+			return ;
+		}
 		this.currentModel = modelName;
 		saveCurrentEnvironment();
 	}
@@ -388,7 +689,8 @@ public class Environment {
 	 * @return
 	 */
 	public String getCurrentBundle() {
-		return currentBundle ;
+		Snapshot job = snapshot.get();
+		return job != null ? job.currentBundle : currentBundle ;
 	}
 
 	/**
@@ -396,10 +698,137 @@ public class Environment {
 	 * @param bundleName
 	 */
 	public void setCurrentBundle(String bundleName) {
+		Snapshot job = snapshot.get();
+		if ( job != null ) {
+			job.currentBundle = bundleName; // background job : not saved
+			return ;
+		}
 		this.currentBundle = bundleName;
 		saveCurrentEnvironment();
 	}
 
+	//---------------------------------------------------------------------------------
+	// Background jobs
+	//---------------------------------------------------------------------------------
+	/**
+	 * Returns a snapshot of the current HOME, model and bundle (to be used by a background job)
+	 * @return
+	 */
+	public synchronized Snapshot takeSnapshot() {
+		Snapshot job = snapshot.get();
+		if ( job != null ) {
+			// job launched by a job 
+			return new Snapshot(job.homeDirectory, job.currentModel, job.currentBundle, job.telosysProject);
+		}
+		return new Snapshot(homeDirectory, currentModel, currentBundle, getTelosysProject());
+	}
+
+	/**
+	 * Sets the snapshot used by the commands executed in the current thread <br>
+	 * Until 'clearSnapshot' the HOME, model and bundle are read and changed in the snapshot only
+	 * @param jobSnapshot
+	 */
+	public void setSnapshot(Snapshot jobSnapshot) {
+		snapshot.set(jobSnapshot);
+	}
+
+	/**
+	 * Removes the snapshot used by the current thread (and releases its resources if any)
+	 */
+	public void clearSnapshot() {
+		Snapshot job = snapshot.get();
+		snapshot.remove();
+		if ( job != null ) {
+			job.close();
+		}
+	}
+
+	/**
+	 * HOME, model and bundle seen by a background job <br>
+	 * Taken when the job is launched : the job is not affected by the changes made in the session 
+	 * while it runs, and its own changes ( eg 'm', 'b', 'h' ) are not applied to the session <br>
+	 * If the session HOME is changed the job uses its own project configuration and indexes
+	 */
+	public static class Snapshot {
+		private String          homeDirectory ;
+		private String          currentModel ;
+		private String          currentBundle ;
+		private TelosysProject  telosysProject ;
+		private TelosysToolsCfg telosysToolsCfg ;
+		private ModelIndex      modelIndex ;
+		private BundlesIndex    bundlesIndex ;
+
+		/**
+		 * Constructor
+		 * @param homeDirectory
+		 * @param currentModel
+		 * @param currentBundle
+		 * @param telosysProject the project of the HOME (or null)
+		 */
+		protected Snapshot(String homeDirectory, String currentModel, String currentBundle, TelosysProject telosysProject) {
+			super();
+			this.homeDirectory = homeDirectory;
+			this.currentModel = currentModel;
+			this.currentBundle = currentBundle;
+			this.telosysProject = telosysProject;
+		}
+
+		private boolean isHome(String directory) {
+			return homeDirectory != null && homeDirectory.equals(directory) ;
+		}
+
+		private synchronized void setHomeDirectory(String directory) {
+			close();
+			this.homeDirectory = directory;
+			this.currentModel = null ;
+			this.currentBundle = null ;
+			this.telosysProject = null ;
+			this.telosysToolsCfg = null ;
+		}
+
+		private synchronized TelosysProject getTelosysProject() {
+			if ( telosysProject == null && homeDirectory != null ) {
+				telosysProject = new TelosysProject(homeDirectory);
+			}
+			return telosysProject ;
+		}
+
+		private synchronized TelosysToolsCfg getTelosysToolsCfg() throws TelosysToolsException {
+			if ( homeDirectory == null ) {
+				throw new TelosysToolsException("Home directory is not defined");
+			}
+			if ( telosysToolsCfg == null ) {
+				telosysToolsCfg = getTelosysProject().getTelosysToolsCfg();
+			}
+			return telosysToolsCfg ;
+		}
+
+		private synchronized ModelIndex getModelIndex() throws TelosysToolsException {
+			if ( modelIndex == null ) {
+				modelIndex = new ModelIndex(new File(getTelosysToolsCfg().getModelsFolderAbsolutePath()));
+			}
+			return modelIndex ;
+		}
+
+		private synchronized BundlesIndex getBundlesIndex() throws TelosysToolsException {
+			if ( bundlesIndex == null ) {
+				bundlesIndex = new BundlesIndex(new File(getTelosysToolsCfg().getTemplatesFolderAbsolutePath()));
+			}
+			return bundlesIndex ;
+		}
+
+		private synchronized void close() {
+			if ( modelIndex != null ) {
+				modelIndex.close();
+				modelIndex = null ;
+			}
+			if ( bundlesIndex != null ) {
+				bundlesIndex.close();
+				bundlesIndex = null ;
+			}
+		}
+	}
+
 	//---------------------------------------------------------------------------------
 	// Environment persistence
 	//---------------------------------------------------------------------------------
@@ -417,8 +846,7 @@ public class Environment {
 		if ( homeDirectory != null ) {
 			String dir = null ;
 			try {
-				TelosysToolsCfg telosysToolsCfg = (new TelosysProject(homeDirectory)).getTelosysToolsCfg();
-				dir = telosysToolsCfg.getTelosysToolsFolderAbsolutePath();
+				dir = getTelosysToolsCfg().getTelosysToolsFolderAbsolutePath();
 			} catch (TelosysToolsException e) {
 				// Cannot get Telosys configuration
 				return null ;
@@ -434,7 +862,8 @@ public class Environment {
 	}
 	
 	/**
-	 * Saves the current environment in a file
+	 * Saves the current environment in a file <br>
+	 * (write-behind : the file is written later by the saver of the session or by 'flush')
 	 */
 	private void saveCurrentEnvironment() {
 		File file = getEnvironmentPropertiesFile() ;
@@ -444,11 +873,17 @@ public class Environment {
 			putIfNotNull(properties, BUNDLE, this.currentBundle);
 			putIfNotNull(properties, GITHUBSTORE, this.currentGitHubStore);
 			
-			PropertiesManager pm = new PropertiesManager(file);
-			pm.save(properties);
+			commandProvider.getProjectContexts().getEnvironmentSaver().save(file, properties);
 		}
 	}
 	
+	/**
+	 * Writes the pending environment changes if any (to be called before exit)
+	 */
+	public void flush() {
+		commandProvider.getProjectContexts().getEnvironmentSaver().flush();
+	}
+	
 	private void putIfNotNull(Properties properties, String key, String value ) {
 		if ( value != null ) {
 			properties.put(key, value);
@@ -468,6 +903,7 @@ public class Environment {
 	 * Restores the environment from a file if any
 	 */
 	private void restoreCurrentEnvironment() {
+		flush(); // pending changes written before reading
 		File file = getEnvironmentPropertiesFile() ;
 		if ( file != null && file.exists() && file.isFile() ) {
 			
@@ -477,6 +913,25 @@ public class Environment {
 			this.currentModel = properties.getProperty(MODEL); // null if not found
 			this.currentBundle = properties.getProperty(BUNDLE); // null if not found
 			this.currentGitHubStore = properties.getProperty(GITHUBSTORE); // null if not found
+			
+			// Start loading the restored model in background
+			preloadCurrentModel();
+		}
+	}
+	
+	/**
+	 * Starts the loading of the current model in background (if any) 
+	 */
+	private void preloadCurrentModel() {
+		if ( homeDirectory != null && currentModel != null ) {
+			try {
+				File modelFile = getModelIndex().getModelFile(currentModel);
+				if ( modelFile != null ) {
+					modelLoader.preload(getTelosysProject(), modelFile);
+				}
+			} catch (TelosysToolsException e) {
+				// Model not found or ambiguous : reported by the first command using the model
+			}
 		}
 	}
 }
@@ -27,6 +27,11 @@ import java.io.PrintWriter;
  */
 public class LaunchArgumentsProcessor {
 	
+	public static final String HOME_ARG     = "-h" ;
+	public static final String SCRIPT_ARG   = "-f" ;
+	public static final String COMMANDS_ARG = "-c" ;
+	public static final String YES_ARG      = "-y" ;
+
 	private final PrintWriter out ;
 
 	private final CommandProvider commandProvider ;
@@ -44,12 +49,14 @@ public class LaunchArgumentsProcessor {
 	 * Processes the launch arguments if any <br>
 	 * eg : -h homedir 
 	 * @param args
+	 * @return false if an argument is invalid
 	 */
-	protected void processLaunchArguments(String[] args) {
+	protected boolean processLaunchArguments(String[] args) {
 		try {
-			processArguments(args);
+			return processArguments(args);
 		} catch (Exception e) {
 			print("ERROR : Unexpected exception " + e.getMessage() );
+			return false ;
 		}
 	}
 	
@@ -64,7 +71,7 @@ public class LaunchArgumentsProcessor {
 	 *  
 	 * @param args
 	 */
-	private void processArguments(String[] args) {
+	private boolean processArguments(String[] args) {
 		if ( args.length > 0 ) {
 			if ( Trace.DEBUG ) {
 				print("");
@@ -88,8 +95,14 @@ public class LaunchArgumentsProcessor {
 			String[] hArgs = buildArgs(cdCommand, home.getAbsolutePath());
 			String r = homeCommand.execute( hArgs );
 			
-			print(r) ; // Prints the "h" command result : Home set ('xxx')			
+			if ( commandProvider.getEnvironment().getOutputFormat() == OutputFormat.TEXT ) {
+				print(r) ; // Prints the "h" command result : Home set ('xxx')
+			}			
+		}
+		else if ( hasArg(args, HOME_ARG) ) {
+			return false ; // invalid home 
 		}
+		return true ;
 	}
 	
 	private String[] buildArgs(Command command, String homePath) {
@@ -119,7 +132,7 @@ public class LaunchArgumentsProcessor {
 		// so the usefull arguments starts at ZERO 
 		for ( int i = 0 ; i < args.length ; i++ ) {
 			String arg = args[i];
-			if ( "-h".equals(arg) ) {
+			if ( HOME_ARG.equals(arg) ) {
 				String home = getNextArg(args, i);
 				if ( home != null ) {
 					File file = new File(home);
@@ -145,4 +158,73 @@ public class LaunchArgumentsProcessor {
 		}
 	}
 
+	private boolean hasArg(String[] args, String argName) {
+		for ( String arg : args ) {
+			if ( argName.equals(arg) ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	private String getArgValue(String[] args, String argName) {
+		for ( int i = 0 ; i < args.length ; i++ ) {
+			if ( argName.equals(args[i]) ) {
+				return getNextArg(args, i);
+			}
+		}
+		return null ;
+	}
+
+	/**
+	 * Returns true if the command lines come from a script or from an argument ( '-f' or '-c' )
+	 * @param args
+	 * @return
+	 */
+	protected boolean isScriptMode(String[] args) {
+		return hasArg(args, SCRIPT_ARG) || hasArg(args, COMMANDS_ARG) ;
+	}
+
+	/**
+	 * Returns true if the confirmations are automatic ( '-y' )
+	 * @param args
+	 * @return
+	 */
+	protected boolean isAutoConfirm(String[] args) {
+		return hasArg(args, YES_ARG) ;
+	}
+
+	/**
+	 * Returns the default output format ( '--json' or '--ndjson' ) 
+	 * @param args
+	 * @return the format or null if none
+	 */
+	protected OutputFormat getOutputFormatArg(String[] args) {
+		for ( String arg : args ) {
+			OutputFormat format = OutputFormat.fromOption(arg);
+			if ( format != null ) {
+				return format ;
+			}
+		}
+		return null ;
+	}
+
+	/**
+	 * Returns the script file ( '-f script.tls' ) 
+	 * @param args
+	 * @return the file or null if none
+	 */
+	protected File getScriptFileArg(String[] args) {
+		String path = getArgValue(args, SCRIPT_ARG);
+		return path != null ? new File(path) : null ;
+	}
+
+	/**
+	 * Returns the command lines ( '-c "cmd; cmd"' ) 
+	 * @param args
+	 * @return the command lines or null if none
+	 */
+	protected String getCommandsArg(String[] args) {
+		return getArgValue(args, COMMANDS_ARG);
+	}
 }
@@ -0,0 +1,60 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+/**
+ * Output format for the listing and generation commands <br>
+ *  - TEXT   : human readable text (default) <br>
+ *  - JSON   : a JSON array of records <br>
+ *  - NDJSON : one JSON record per line ( "newline delimited JSON" ) 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public enum OutputFormat {
+
+	TEXT(null), 
+	JSON("--json"), 
+	NDJSON("--ndjson") ;
+
+	private final String option ;
+
+	private OutputFormat(String option) {
+		this.option = option ;
+	}
+
+	/**
+	 * Returns the option selecting the format ( eg '--json' )
+	 * @return the option or null for the default format
+	 */
+	public String getOption() {
+		return option;
+	}
+
+	/**
+	 * Returns the format selected by the given option
+	 * @param arg ( eg '--json' or '--ndjson' ) 
+	 * @return the format or null if the argument is not a format option
+	 */
+	public static OutputFormat fromOption(String arg) {
+		for ( OutputFormat format : values() ) {
+			if ( format.option != null && format.option.equals(arg) ) {
+				return format ;
+			}
+		}
+		return null ;
+	}
+}
@@ -0,0 +1,235 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.commons.WriteBehindPropertiesSaver;
+
+/**
+ * Named project contexts of the session <br>
+ * Each context has its own commands and its own environment ( HOME, model, bundle, caches ) <br>
+ * All the contexts share the console, the command lines are executed in the current context ( see 'use' )
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ProjectContexts {
+
+	public static final String DEFAULT_CONTEXT = "default" ;
+
+	private static final Pattern CONTEXT_NAME = Pattern.compile("[A-Za-z0-9_\\-\\.]+");
+
+	private static final long ENV_SAVE_DELAY = 500 ; // milliseconds 
+
+	private final ConsoleReader consoleReader ;
+	private final ConsoleOutput consoleOutput ;
+	private final PrintWriter   console ;
+
+	// 'context name' --> 'command provider' (in creation order)
+	private final Map<String, CommandProvider> contexts = new LinkedHashMap<>();
+
+	private final BackgroundJobs backgroundJobs = new BackgroundJobs();
+	private final CommandStats   commandStats = new CommandStats();
+	// environment files ( 'telosys.env' ) saver shared by all the contexts
+	private final WriteBehindPropertiesSaver environmentSaver = new WriteBehindPropertiesSaver(ENV_SAVE_DELAY);
+
+	private String  currentContext ;
+	private boolean autoConfirm = false ;
+	private OutputFormat outputFormat = OutputFormat.TEXT ;
+
+	/**
+	 * Constructor (creates the default context)
+	 * @param consoleReader
+	 */
+	public ProjectContexts(ConsoleReader consoleReader) {
+		super();
+		this.consoleReader = consoleReader ;
+		this.consoleOutput = new ConsoleOutput(consoleReader.getOutput());
+		this.console = new PrintWriter(consoleOutput);
+		this.currentContext = DEFAULT_CONTEXT ;
+		contexts.put(DEFAULT_CONTEXT, new CommandProvider(consoleReader, this, DEFAULT_CONTEXT));
+	}
+
+	/**
+	 * Returns the console output shared by all the commands of the session (buffered, written in background)
+	 * @return
+	 */
+	public PrintWriter getConsole() {
+		return console ;
+	}
+
+	/**
+	 * Waits until all the console output is written ( eg before the prompt or a console input )
+	 */
+	public void drainConsole() {
+		console.flush();
+		consoleOutput.drain();
+	}
+
+	/**
+	 * Returns the background jobs of the session (all contexts)
+	 * @return
+	 */
+	public BackgroundJobs getBackgroundJobs() {
+		return backgroundJobs ;
+	}
+
+	/**
+	 * Returns the statistics of the commands executed in the session (all contexts)
+	 * @return
+	 */
+	public CommandStats getCommandStats() {
+		return commandStats ;
+	}
+
+	/**
+	 * Returns the environment files saver of the session (all contexts)
+	 * @return
+	 */
+	public WriteBehindPropertiesSaver getEnvironmentSaver() {
+		return environmentSaver ;
+	}
+
+	/**
+	 * Prints the environment files write errors that occurred since the previous call (if any)
+	 * @param out
+	 */
+	public void reportSaveErrors(PrintWriter out) {
+		List<String> errors = environmentSaver.takeErrors();
+		if ( ! errors.isEmpty() ) {
+			for ( String error : errors ) {
+				out.println("[WARNING] " + error);
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * Returns true if the given name can be used as a context name
+	 * @param contextName
+	 * @return
+	 */
+	public static boolean isValidName(String contextName) {
+		return CONTEXT_NAME.matcher(contextName).matches();
+	}
+
+	/**
+	 * Returns the commands of the current context
+	 * @return
+	 */
+	public synchronized CommandProvider getCurrent() {
+		return contexts.get(currentContext);
+	}
+
+	public synchronized String getCurrentName() {
+		return currentContext ;
+	}
+
+	/**
+	 * Returns the commands of the given context
+	 * @param contextName
+	 * @return the context or null if unknown
+	 */
+	public synchronized CommandProvider get(String contextName) {
+		return contexts.get(contextName);
+	}
+
+	/**
+	 * Returns the commands of the given context (the context is created if it doesn't exist)
+	 * @param contextName
+	 * @return
+	 */
+	public synchronized CommandProvider getOrCreate(String contextName) {
+		CommandProvider commandProvider = contexts.get(contextName);
+		if ( commandProvider == null ) {
+			if ( ! isValidName(contextName) ) {
+				throw new IllegalArgumentException("Invalid context name '" + contextName + "'");
+			}
+			commandProvider = new CommandProvider(consoleReader, this, contextName);
+			commandProvider.getEnvironment().setAutoConfirm(autoConfirm);
+			commandProvider.getEnvironment().setOutputFormat(outputFormat);
+			contexts.put(contextName, commandProvider);
+		}
+		return commandProvider ;
+	}
+
+	/**
+	 * Sets the current context (the context is created if it doesn't exist)
+	 * @param contextName
+	 * @return the commands of the new current context
+	 */
+	public synchronized CommandProvider setCurrent(String contextName) {
+		CommandProvider commandProvider = getOrCreate(contextName);
+		currentContext = contextName ;
+		return commandProvider ;
+	}
+
+	/**
+	 * Returns the names of all the contexts (in creation order)
+	 * @return
+	 */
+	public synchronized List<String> getNames() {
+		return new ArrayList<>(contexts.keySet());
+	}
+
+	/**
+	 * Sets the automatic confirmation for all the contexts (current and future ones) 
+	 * @param autoConfirm
+	 */
+	public synchronized void setAutoConfirm(boolean autoConfirm) {
+		this.autoConfirm = autoConfirm ;
+		for ( CommandProvider commandProvider : contexts.values() ) {
+			commandProvider.getEnvironment().setAutoConfirm(autoConfirm);
+		}
+	}
+
+	/**
+	 * Sets the default output format for all the contexts (current and future ones) 
+	 * @param outputFormat
+	 */
+	public synchronized void setOutputFormat(OutputFormat outputFormat) {
+		this.outputFormat = outputFormat ;
+		for ( CommandProvider commandProvider : contexts.values() ) {
+			commandProvider.getEnvironment().setOutputFormat(outputFormat);
+		}
+	}
+
+	/**
+	 * Flushes the pending changes of all the contexts and the console output (to be called before exit)
+	 */
+	public synchronized void flush() {
+		environmentSaver.flush();
+		reportSaveErrors(console);
+		drainConsole();
+	}
+
+	/**
+	 * Flushes the pending changes and releases the resources of the session (to be called at exit)
+	 */
+	public synchronized void close() {
+		environmentSaver.close();
+		reportSaveErrors(console);
+		drainConsole();
+	}
+}
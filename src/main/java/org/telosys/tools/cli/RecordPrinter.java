@@ -0,0 +1,104 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.telosys.tools.cli.commons.JsonUtil;
+
+/**
+ * Streaming printer for the records produced by a command ( '--json' or '--ndjson' ) <br>
+ * Each record is printed as soon as it is produced : <br>
+ *  - NDJSON : one record per line <br>
+ *  - JSON   : an array with one record per line ( '[' before the first record, ']' at the end ) <br>
+ * Until the end of the output the errors of the command are printed as 'error' records
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class RecordPrinter {
+
+	private final Command      command ;
+	private final OutputFormat format ;
+	private int count = 0 ;
+
+	/**
+	 * Constructor
+	 * @param command the command printing the records
+	 * @param format JSON or NDJSON
+	 */
+	protected RecordPrinter(Command command, OutputFormat format) {
+		super();
+		this.command = command ;
+		this.format = format ;
+	}
+
+	/**
+	 * Prints the given record
+	 * @param record
+	 */
+	public void print(Map<String, Object> record) {
+		String json = JsonUtil.toJson(record);
+		if ( format == OutputFormat.JSON ) {
+			command.print( ( count == 0 ? "[" : "," ) + json );
+		}
+		else {
+			command.print(json);
+		}
+		count++ ;
+	}
+
+	/**
+	 * Prints the given error message as an 'error' record
+	 * @param message
+	 */
+	public void printError(String message) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("record", "error");
+		record.put("message", message);
+		print(record);
+	}
+
+	/**
+	 * Ends the records output (to be called after the last record)
+	 */
+	public void end() {
+		Environment environment = command.getEnvironment();
+		if ( environment.getRecordPrinter() == this ) {
+			environment.setRecordPrinter(null); // errors printed as text from now
+		}
+		if ( format == OutputFormat.JSON ) {
+			command.print( count == 0 ? "[]" : "]" );
+		}
+	}
+
+	/**
+	 * Returns the output format
+	 * @return JSON or NDJSON
+	 */
+	public OutputFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the number of records printed
+	 * @return
+	 */
+	public int getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Non-interactive execution of command lines <br>
+ *  - from a script file ( '-f script.tls' : one command line per line, '#' for comments ) <br>
+ *  - from an argument ( '-c "cmd; cmd"' ) <br>
+ * The execution stops at the first command in error 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ScriptRunner {
+
+	public static final int EXIT_OK    = 0 ;
+	public static final int EXIT_ERROR = 1 ;
+
+	private final CommandLineProcessor commandLineProcessor ;
+	private final PrintWriter          out ;
+	private boolean                    echo = true ;
+
+	/**
+	 * Constructor
+	 * @param commandLineProcessor
+	 * @param out
+	 */
+	public ScriptRunner(CommandLineProcessor commandLineProcessor, PrintWriter out) {
+		super();
+		this.commandLineProcessor = commandLineProcessor ;
+		this.out = out ;
+	}
+
+	/**
+	 * Sets the echo of each command line before its execution and of the error stopping the execution (default : true)
+	 * @param echo
+	 */
+	public void setEcho(boolean echo) {
+		this.echo = echo ;
+	}
+
+	private void print(String message) {
+		out.println(message);
+		out.flush();
+	}
+
+	/**
+	 * Runs all the command lines of the given script file
+	 * @param scriptFile
+	 * @return the exit code
+	 */
+	public int runFile(File scriptFile) {
+		List<String> lines ;
+		try {
+			lines = Files.readAllLines(scriptFile.toPath(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			print("Cannot read script file '" + scriptFile + "' : " + e.getMessage());
+			return EXIT_ERROR ;
+		}
+		return run(lines, scriptFile.getName());
+	}
+
+	/**
+	 * Runs the command lines separated by ';' (each one can be a chain with '&&' and '||')
+	 * @param commands ( eg "h /foo/bar; m mymodel; b mybundle; gen * *" )
+	 * @return the exit code
+	 */
+	public int runCommands(String commands) {
+		return run(CommandLineUtil.splitSequence(commands), "-c");
+	}
+
+	private int run(List<String> lines, String origin) {
+		int lineNumber = 0 ;
+		for ( String line : lines ) {
+			lineNumber++ ;
+			String commandLine = line.trim();
+			if ( commandLine.length() == 0 || commandLine.startsWith("#") ) {
+				continue ;
+			}
+			if ( echo ) {
+				print(Const.PROMPT_TEXT + Const.PROMPT_CHAR + " " + commandLine);
+			}
+			if ( ! commandLineProcessor.processLine(commandLine) ) {
+				if ( echo ) { // no text in a structured output (the exit status reports the error)
+					print("Error in '" + origin + "' ( line " + lineNumber + " : '" + commandLine + "' ) : execution stopped");
+				}
+				return EXIT_ERROR ;
+			}
+		}
+		return EXIT_OK ;
+	}
+}
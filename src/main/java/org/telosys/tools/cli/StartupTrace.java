@@ -0,0 +1,91 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Startup phases timings, printed before the first prompt if the CLI is launched with '--startup-trace' <br>
+ * Each phase is measured from the end of the previous one (the first phase starts at the JVM start)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class StartupTrace {
+
+	public static final String STARTUP_TRACE_ARG = "--startup-trace" ;
+
+	private static boolean enabled = false ;
+	private static long    jvmStartTime ;
+	private static long    lastTime ;
+	private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+	/**
+	 * Private constructor
+	 */
+	private StartupTrace() {
+	}
+
+	/**
+	 * Enables the trace if the launch arguments contain '--startup-trace'
+	 * @param args
+	 */
+	public static synchronized void init(String[] args) {
+		for ( String arg : args ) {
+			if ( STARTUP_TRACE_ARG.equals(arg) ) {
+				enabled = true ;
+				jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime() ;
+				lastTime = jvmStartTime ;
+				phase("JVM start to main");
+				return ;
+			}
+		}
+	}
+
+	public static synchronized boolean isEnabled() {
+		return enabled ;
+	}
+
+	/**
+	 * Ends the current phase 
+	 * @param phaseName
+	 */
+	public static synchronized void phase(String phaseName) {
+		if ( enabled ) {
+			long now = System.currentTimeMillis();
+			phases.put(phaseName, now - lastTime);
+			lastTime = now ;
+		}
+	}
+
+	/**
+	 * Prints the phases timings (if enabled) 
+	 * @param out
+	 */
+	public static synchronized void print(PrintWriter out) {
+		if ( enabled ) {
+			out.println("Startup phases (ms) :");
+			for ( Map.Entry<String, Long> entry : phases.entrySet() ) {
+				out.println(String.format(" . %-24s : %6d", entry.getKey(), entry.getValue()));
+			}
+			out.println(String.format(" . %-24s : %6d", "Total (JVM to prompt)", lastTime - jvmStartTime));
+			out.flush();
+		}
+	}
+}
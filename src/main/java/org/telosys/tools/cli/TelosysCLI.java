@@ -15,6 +15,7 @@
  */
 package org.telosys.tools.cli;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 
@@ -34,7 +35,7 @@ public class TelosysCLI {
 
 	private final PrintWriter out ;
 	private final ConsoleReader consoleReader ;
-	private final CommandProvider commandProvider ;
+	private final ProjectContexts projectContexts ;
 	private final CommandLineProcessor commandLineProcessor;
 	
 	/**
@@ -44,9 +45,11 @@ public class TelosysCLI {
 	public TelosysCLI() throws IOException {
 		super();
 		this.consoleReader = new ConsoleReader() ;
-		this.out = new PrintWriter(consoleReader.getOutput());
-		this.commandProvider = new CommandProvider(consoleReader);
-		this.commandLineProcessor = new CommandLineProcessor( consoleReader, commandProvider ) ;
+		this.projectContexts = new ProjectContexts(consoleReader);
+		this.out = projectContexts.getConsole();
+		StartupTrace.phase("Console");
+		this.commandLineProcessor = new CommandLineProcessor( consoleReader, projectContexts ) ;
+		StartupTrace.phase("Environment and commands");
 	}
 	
 	/**
@@ -55,17 +58,75 @@ public class TelosysCLI {
 	 */
 	public void start(String[] args) {
 		
+		LaunchArgumentsProcessor argsProcessor = new LaunchArgumentsProcessor(projectContexts.getCurrent(), out);
+		boolean scriptMode = argsProcessor.isScriptMode(args);
+		
 		// Initialize the CLI
-		init();		
+		init(scriptMode);		
+		
+		// Training session for the class-data-sharing archive ( '--cds-dump' )
+		if ( CdsTrainingSession.isRequested(args) ) {
+			new CdsTrainingSession(projectContexts.getCurrent(), commandLineProcessor, out).run();
+			projectContexts.drainConsole();
+			System.exit(0); // the JVM dumps the archive at exit
+		}
 		
 		// Process launch arguments if any
-		LaunchArgumentsProcessor argsProcessor = new LaunchArgumentsProcessor(commandProvider, out);
-		argsProcessor.processLaunchArguments(args);
+		if ( argsProcessor.isAutoConfirm(args) ) {
+			projectContexts.setAutoConfirm(true);
+		}
+		OutputFormat outputFormat = argsProcessor.getOutputFormatArg(args);
+		if ( outputFormat != null ) {
+			projectContexts.setOutputFormat(outputFormat);
+		}
+		boolean argsOk = argsProcessor.processLaunchArguments(args);
+		StartupTrace.phase("Launch arguments");
+		StartupTrace.print(out);
+		
+		if ( scriptMode ) {
+			// Non-interactive execution ( '-f' or '-c' ) 
+			int exitCode = argsOk ? runScript(argsProcessor, args) : ScriptRunner.EXIT_ERROR ;
+			if ( ! awaitBackgroundJobs() ) {
+				exitCode = ScriptRunner.EXIT_ERROR ;
+			}
+			projectContexts.close();
+			System.exit(exitCode);
+		}
 		
 		// Launch the line processor...
 		launch();
 	}
 	
+	private int runScript(LaunchArgumentsProcessor argsProcessor, String[] args) {
+		ScriptRunner scriptRunner = new ScriptRunner(commandLineProcessor, out);
+		scriptRunner.setEcho(argsProcessor.getOutputFormatArg(args) == null); // no echo in a structured output
+		File scriptFile = argsProcessor.getScriptFileArg(args);
+		if ( scriptFile != null ) {
+			int exitCode = scriptRunner.runFile(scriptFile);
+			if ( exitCode != ScriptRunner.EXIT_OK ) {
+				return exitCode ;
+			}
+		}
+		String commands = argsProcessor.getCommandsArg(args);
+		if ( commands != null ) {
+			return scriptRunner.runCommands(commands);
+		}
+		return ScriptRunner.EXIT_OK ;
+	}
+	
+	/**
+	 * Waits for the background jobs launched by the script (daemon threads killed at exit)
+	 * @return true if all the jobs are DONE
+	 */
+	private boolean awaitBackgroundJobs() {
+		try {
+			return projectContexts.getBackgroundJobs().awaitAll(out);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false ;
+		}
+	}
+
 	private void print(String message) {
 		out.println(message);
 		out.flush();
@@ -73,16 +134,28 @@ public class TelosysCLI {
 
 	/**
 	 * Initializes the CLI 
+	 * @param scriptMode no banner and no prompt if true
 	 */
-	private void init() {
-		// set the initial prompt
-		consoleReader.setPrompt(Color.colorize(Const.INITIAL_PROMPT, Const.PROMPT_COLOR) );
-		// print the banner
-		String banner = new Banner().bannerSlant();
-		print(Color.colorize(banner, Color.CYAN_BRIGHT));
-		// print few messages
-		print("Enter ? for help");
+	private void init(boolean scriptMode) {
+		if ( ! scriptMode ) {
+			// set the initial prompt
+			consoleReader.setPrompt(Color.colorize(Const.INITIAL_PROMPT, Const.PROMPT_COLOR) );
+			// print the banner
+			String banner = new Banner().bannerSlant();
+			print(Color.colorize(banner, Color.CYAN_BRIGHT));
+			// print few messages
+			print("Enter ? for help");
+			StartupTrace.phase("Banner");
+		}
 		
+		initDatabaseObservers();
+		StartupTrace.phase("Database observers");
+	}
+
+	/**
+	 * Initializes the database observers (used by the database commands)
+	 */
+	protected static void initDatabaseObservers() {
 		DatabaseObserverProvider.setModelObserverClass(DbModelObserver.class);
 		DatabaseObserverProvider.setMetadataObserverClass(DbMetadataObserver.class);
 		DbMetadataObserver.setActive(false);
@@ -94,11 +167,13 @@ public class TelosysCLI {
 	private void launch() {
 		try {
 			while (true) {
+				projectContexts.drainConsole(); // all the output written before the prompt
 				String line = consoleReader.readLine() ;
 				commandLineProcessor.processLine(line);
 			}
 		} catch (Exception e) {
 			print("ERROR : Unexpected exception " + e.getMessage() );
+			projectContexts.drainConsole();
 		}
 	}
 
@@ -0,0 +1,204 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.telosys.tools.cli.commons.RedirectableOutputStream;
+
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+
+/**
+ * Daemon mode ( launched with '--daemon' ) <br>
+ * Keeps the commands, the environment and all the caches warm and executes the command lines 
+ * received on a localhost TCP socket (no Unix-domain socket in Java 7) <br>
+ * Protocol (one command line per connection) : <br>
+ *  - client : token line, command line <br>
+ *  - daemon : command output, status marker ( '\u0001' ) followed by the exit status line ( 0 if OK, 1 if error ), 
+ *    then end of connection <br>
+ * The command lines are executed one at a time, without console input : a confirmation is refused 
+ * unless the daemon has been started with '-y' (so a client can never block the other clients)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class TelosysDaemon {
+
+	public static final String DAEMON_ARG = "--daemon" ;
+
+	private static final int HEADER_TIMEOUT   = 5000 ; // ms
+	private static final int HEADER_MAX_LENGTH = 8192 ;
+
+	/**
+	 * Marker written before the exit status ( never found in the command output )
+	 */
+	public static final char STATUS_MARKER = '\u0001' ;
+	public static final int  STATUS_OK     = 0 ;
+	public static final int  STATUS_ERROR  = 1 ;
+
+	private final InputStream              in  = new ByteArrayInputStream(new byte[0]); // no console input
+	private final RedirectableOutputStream out = new RedirectableOutputStream();
+	private final PrintWriter          log ;
+	private final ProjectContexts      projectContexts ;
+	private final CommandLineProcessor commandLineProcessor ;
+
+	/**
+	 * Constructor
+	 * @throws IOException
+	 */
+	public TelosysDaemon() throws IOException {
+		super();
+		this.log = new PrintWriter(System.out);
+		// all the commands write in the stream of the current connection (no input : end of stream)
+		ConsoleReader consoleReader = new ConsoleReader(in, out, new UnsupportedTerminal());
+		this.projectContexts = new ProjectContexts(consoleReader);
+		this.commandLineProcessor = new CommandLineProcessor(consoleReader, projectContexts);
+	}
+
+	/**
+	 * Returns true if the launch arguments contain '--daemon'
+	 * @param args
+	 * @return
+	 */
+	public static boolean isRequested(String[] args) {
+		for ( String arg : args ) {
+			if ( DAEMON_ARG.equals(arg) ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	private void print(String message) {
+		log.println(message);
+		log.flush();
+	}
+
+	/**
+	 * Starts the daemon (never returns, use the 'q' command to stop it)
+	 * @param args launch arguments ( eg '-h homedir' )
+	 * @throws IOException
+	 */
+	public void start(String[] args) throws IOException {
+		TelosysCLI.initDatabaseObservers();
+		LaunchArgumentsProcessor argsProcessor = new LaunchArgumentsProcessor(projectContexts.getCurrent(), log);
+		if ( argsProcessor.isAutoConfirm(args) ) {
+			projectContexts.setAutoConfirm(true);
+		}
+		argsProcessor.processLaunchArguments(args);
+
+		try ( ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress()) ) {
+			final DaemonInfo daemonInfo = new DaemonInfo(serverSocket.getLocalPort(), DaemonInfo.newToken());
+			daemonInfo.write();
+			Runtime.getRuntime().addShutdownHook(new Thread("daemon-file-cleaner") {
+				@Override
+				public void run() {
+					deleteDaemonFile(daemonInfo);
+					// 'q' executed for the current connection (if any) : end of the command
+					writeStatus(STATUS_OK);
+				}
+			});
+			print("Telosys CLI daemon listening on " + serverSocket.getInetAddress().getHostAddress() 
+					+ ":" + serverSocket.getLocalPort() + " (info file : " + DaemonInfo.getFile() + ")");
+			while ( true ) {
+				try ( Socket socket = serverSocket.accept() ) {
+					serve(socket, daemonInfo.getToken());
+				} catch (IOException e) {
+					print("Connection error : " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void deleteDaemonFile(DaemonInfo daemonInfo) {
+		try {
+			DaemonInfo current = DaemonInfo.read();
+			if ( current != null && daemonInfo.getToken().equals(current.getToken()) ) {
+				DaemonInfo.delete(); // not replaced by another daemon
+			}
+		} catch (IOException e) {
+			// ignored
+		}
+	}
+
+	private void serve(Socket socket, String token) throws IOException {
+		InputStream socketIn = socket.getInputStream();
+		OutputStream socketOut = socket.getOutputStream();
+		socket.setSoTimeout(HEADER_TIMEOUT);
+		String clientToken = readLine(socketIn);
+		String commandLine = readLine(socketIn);
+		if ( ! token.equals(clientToken) || commandLine == null ) {
+			socketOut.write("Rejected (invalid token)\n".getBytes(StandardCharsets.UTF_8));
+			return ;
+		}
+		// no input redirection : the commands never wait for the client
+		out.redirect(socketOut);
+		try {
+			boolean ok = commandLineProcessor.processLine(commandLine);
+			writeStatus(ok ? STATUS_OK : STATUS_ERROR);
+		}
+		finally {
+			out.redirect(null);
+		}
+	}
+
+	/**
+	 * Writes the exit status at the end of the current connection output (if any)
+	 * @param status
+	 */
+	private void writeStatus(int status) {
+		projectContexts.drainConsole();
+		try {
+			out.write((STATUS_MARKER + Integer.toString(status) + "\n").getBytes(StandardCharsets.UTF_8));
+			out.flush();
+		} catch (IOException e) {
+			// connection closed by the client
+		}
+	}
+
+	/**
+	 * Reads a line byte per byte (the following bytes stay in the stream for the command)
+	 * @param inputStream
+	 * @return the line or null if end of stream
+	 * @throws IOException
+	 */
+	private String readLine(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		int b ;
+		while ( ( b = inputStream.read() ) >= 0 && b != '\n' ) {
+			if ( buffer.size() >= HEADER_MAX_LENGTH ) {
+				throw new IOException("Line too long");
+			}
+			if ( b != '\r' ) {
+				buffer.write(b);
+			}
+		}
+		if ( b < 0 && buffer.size() == 0 ) {
+			return null ;
+		}
+		return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
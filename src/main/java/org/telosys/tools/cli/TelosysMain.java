@@ -32,6 +32,19 @@ public class TelosysMain {
 	 */
 	public static void main(String[] args) throws IOException {
 
+		if ( DaemonClient.isRequested(args) ) {
+			// Thin client : the command is executed by the daemon
+			System.exit( DaemonClient.run(args) );
+		}
+		
+		if ( TelosysDaemon.isRequested(args) ) {
+			TelosysDaemon daemon = new TelosysDaemon();
+			daemon.start(args);
+			return ;
+		}
+		
+		StartupTrace.init(args);
+		
 		TelosysCLI cli = new TelosysCLI();
 		
 		cli.start(args);
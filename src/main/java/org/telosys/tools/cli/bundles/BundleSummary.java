@@ -0,0 +1,69 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.bundles;
+
+import org.telosys.tools.cli.commons.FileStamp;
+
+/**
+ * Lightweight bundle description : name, number of templates and resources presence <br>
+ * Kept with the stamp of the bundle configuration file ( 'templates.cfg' ) 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class BundleSummary {
+
+	private final String    name ;
+	private final int       templatesCount ;
+	private final boolean   resources ;
+	private final FileStamp stamp ;
+
+	/**
+	 * Constructor
+	 * @param name
+	 * @param templatesCount
+	 * @param resources
+	 * @param stamp stamp of the bundle configuration file
+	 */
+	public BundleSummary(String name, int templatesCount, boolean resources, FileStamp stamp) {
+		super();
+		this.name = name;
+		this.templatesCount = templatesCount;
+		this.resources = resources;
+		this.stamp = stamp;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getTemplatesCount() {
+		return templatesCount;
+	}
+
+	public boolean hasResources() {
+		return resources;
+	}
+
+	protected FileStamp getStamp() {
+		return stamp;
+	}
+
+	@Override
+	public String toString() {
+		return name + " : " + templatesCount + " template(s), " + ( resources ? "contains resource(s)" : "no resource" ) ;
+	}
+}
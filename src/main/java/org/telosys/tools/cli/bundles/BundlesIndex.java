@@ -0,0 +1,169 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.bundles;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.cli.commons.Criteria;
+import org.telosys.tools.cli.commons.CriteriaUtil;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.cli.commons.FolderWatcher;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.bundles.TargetsDefinitions;
+
+/**
+ * In-session index of the bundles installed in the templates folder <br>
+ * The folder is scanned only when the index is invalid : first use, change notified by the 
+ * folder watcher (WatchService, or folder modification date if not available) or explicit invalidation ( 'ib', 'db' ) <br>
+ * The bundles summaries (templates count, resources) are kept until their 'templates.cfg' file changes 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class BundlesIndex {
+
+	private final File          templatesFolder ;
+	private final FolderWatcher watcher ;
+	private boolean             valid = false ;
+	private int                 scans = 0 ;
+
+	private final TreeSet<String> bundles = new TreeSet<>();
+	private final Map<String, BundleSummary> summaries = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * @param templatesFolder
+	 */
+	public BundlesIndex(File templatesFolder) {
+		super();
+		this.templatesFolder = templatesFolder ;
+		this.watcher = new FolderWatcher(templatesFolder);
+	}
+
+	/**
+	 * Stops watching the templates folder
+	 */
+	public synchronized void close() {
+		watcher.close();
+	}
+
+	/**
+	 * Marks the index as invalid (the folder will be scanned at the next lookup)
+	 */
+	public synchronized void invalidate() {
+		valid = false ;
+	}
+
+	/**
+	 * Returns true if the templates folder is watched (changes detected without scanning)
+	 * @return
+	 */
+	public synchronized boolean isWatched() {
+		return watcher.isWatched() ;
+	}
+
+	/**
+	 * Returns the number of folder scans since the index creation
+	 * @return
+	 */
+	public synchronized int getScans() {
+		return scans ;
+	}
+
+	private void refreshIfNeeded() {
+		if ( watcher.hasChanged() ) {
+			valid = false ;
+		}
+		if ( ! valid ) {
+			scan();
+		}
+	}
+
+	private void scan() {
+		bundles.clear();
+		File[] folders = templatesFolder.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.isDirectory() ;
+			}
+		});
+		if ( folders != null ) {
+			for ( File folder : folders ) {
+				bundles.add(folder.getName());
+			}
+		}
+		summaries.keySet().retainAll(bundles);
+		scans++ ;
+		valid = true ;
+	}
+
+	/**
+	 * Returns the names of all the installed bundles (sorted)
+	 * @return
+	 */
+	public synchronized List<String> getBundles() {
+		refreshIfNeeded();
+		return new ArrayList<>(bundles);
+	}
+
+	/**
+	 * Returns the names of the installed bundles matching the command arguments ( 'name-part' criteria ) 
+	 * @param args the command arguments ( args[0] is the command name )
+	 * @return
+	 */
+	public synchronized List<String> filter(String[] args) {
+		refreshIfNeeded();
+		List<String> criteria = args.length > 1 ? Arrays.asList(args).subList(1, args.length) : null ;
+		List<String> list = new ArrayList<>();
+		Criteria c = CriteriaUtil.buildCriteria(criteria, true);
+		for ( String name : bundles ) {
+			if ( c.matches(name) ) {
+				list.add(name);
+			}
+		}
+		return list ;
+	}
+
+	/**
+	 * Returns the summary of the given bundle (built from the targets definitions only if its configuration has changed)
+	 * @param telosysProject
+	 * @param bundleName
+	 * @param targetsDefinitionsCache
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public synchronized BundleSummary getSummary(TelosysProject telosysProject, String bundleName, 
+			TargetsDefinitionsCache targetsDefinitionsCache) throws TelosysToolsException {
+		FileStamp stamp = new FileStamp(telosysProject.getBundleConfigFile(bundleName));
+		BundleSummary summary = summaries.get(bundleName);
+		if ( summary != null && summary.getStamp().equals(stamp) ) {
+			return summary ;
+		}
+		TargetsDefinitions targetsDefinitions = targetsDefinitionsCache.get(telosysProject, bundleName);
+		summary = new BundleSummary(bundleName, targetsDefinitions.getTemplatesTargets().size(), 
+				! targetsDefinitions.getResourcesTargets().isEmpty(), stamp);
+		summaries.put(bundleName, summary);
+		return summary ;
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.bundles;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.bundles.TargetsDefinitions;
+
+/**
+ * Cache for the bundles targets definitions ( parsed 'templates.cfg' files ) <br>
+ * Each definition is kept with the stamp (time, size) of its 'templates.cfg' file
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class TargetsDefinitionsCache {
+
+	private final Map<String, CachedDefinitions> cache = new HashMap<>();
+
+	private int hits          = 0 ;
+	private int misses        = 0 ;
+	private int invalidations = 0 ;
+
+	/**
+	 * Returns the targets definitions for the given bundle ( parsed only if the file has changed )
+	 * @param telosysProject
+	 * @param bundleName
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public synchronized TargetsDefinitions get(TelosysProject telosysProject, String bundleName) throws TelosysToolsException {
+		File file = telosysProject.getBundleConfigFile(bundleName);
+		FileStamp stamp = new FileStamp(file);
+		CachedDefinitions cached = cache.get(bundleName);
+		if ( cached != null && cached.stamp.equals(stamp) ) {
+			hits++ ;
+			return cached.targetsDefinitions ;
+		}
+		misses++ ;
+		TargetsDefinitions targetsDefinitions = telosysProject.getTargetDefinitions(bundleName);
+		cache.put(bundleName, new CachedDefinitions(stamp, targetsDefinitions));
+		return targetsDefinitions ;
+	}
+
+	/**
+	 * Removes the given bundle from the cache
+	 * @param bundleName
+	 */
+	public synchronized void invalidate(String bundleName) {
+		if ( cache.remove(bundleName) != null ) {
+			invalidations++ ;
+		}
+	}
+
+	/**
+	 * Removes all the bundles from the cache
+	 */
+	public synchronized void invalidateAll() {
+		invalidations += cache.size();
+		cache.clear();
+	}
+
+	/**
+	 * Returns the cache statistics ( eg 'size 2, hits 10, misses 2, invalidations 1' )
+	 * @return
+	 */
+	public synchronized String getStatistics() {
+		return "size " + cache.size() + ", hits " + hits + ", misses " + misses + ", invalidations " + invalidations ;
+	}
+
+	private static class CachedDefinitions {
+		private final FileStamp          stamp ;
+		private final TargetsDefinitions targetsDefinitions ;
+
+		protected CachedDefinitions(FileStamp stamp, TargetsDefinitions targetsDefinitions) {
+			super();
+			this.stamp = stamp;
+			this.targetsDefinitions = targetsDefinitions;
+		}
+	}
+}
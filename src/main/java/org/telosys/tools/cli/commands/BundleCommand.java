@@ -17,12 +17,9 @@ package org.telosys.tools.cli.commands;
 
 import java.util.List;
 
-import org.telosys.tools.api.TelosysProject;
 import org.telosys.tools.cli.Command;
 import org.telosys.tools.cli.Environment;
 import org.telosys.tools.commons.TelosysToolsException;
-import org.telosys.tools.commons.bundles.BundlesNames;
-import org.telosys.tools.commons.bundles.TargetsDefinitions;
 
 import jline.console.ConsoleReader;
 
@@ -66,13 +63,7 @@ public class BundleCommand extends Command {
 		else {
 			String bundleName = getCurrentBundle() ;
 			if ( bundleName != null ) {
-				TargetsDefinitions targetsDefinitions = getCurrentTargetsDefinitions();
-				int templatesCount = targetsDefinitions.getTemplatesTargets().size();
-				String resources = "no resource" ;
-				if ( targetsDefinitions.getResourcesTargets().size() > 0 ) {
-					resources = "contains resource(s)" ;
-				}
-				return bundleName + " : " + templatesCount + " template(s), " + resources ;
+				return getBundleSummary(bundleName);
 			}
 			else {
 				return "Undefined (no current bundle)";
@@ -81,27 +72,30 @@ public class BundleCommand extends Command {
 		return null ;
 	}
 
+	private String getBundleSummary(String bundleName) {
+		try {
+			return getEnvironment().getBundlesIndex().getSummary(getTelosysProject(), bundleName, 
+					getEnvironment().getTargetsDefinitionsCache()).toString();
+		} catch (TelosysToolsException e) {
+			printError(e);
+		}
+		return null ;
+	}
+
 	private String setBundle(String[] args) {
-		TelosysProject telosysProject = getTelosysProject();
 		try {
-			// get all installed bundles
-			//List<String> bundles = telosysProject.getInstalledBundles();
-			BundlesNames bundlesNames = telosysProject.getInstalledBundles();
-			// filter with criteria if any
-//			List<String> criteria = BundlesUtil.buildCriteriaFromArgs(args);
-//			List<String> filteredBundles = BundlesUtil.filter(bundles, criteria);
-			
-			List<String> filteredBundles = bundlesNames.filter(args);
+			// get the installed bundles matching the criteria (from the bundles index)
+			List<String> filteredBundles = getEnvironment().getBundlesIndex().filter(args);
 			
-			if ( filteredBundles.size() < 0 ) {
-				return "No bundle found!" ;
+			if ( filteredBundles.isEmpty() ) {
+				return failure("No bundle found!") ;
 			}
 			else if ( filteredBundles.size() == 1 ) {
 				setCurrentBundle(filteredBundles.get(0));
 				return "Current bundle is now '" + getCurrentBundle() + "'";
 			}
 			else {
-				return filteredBundles.size() + " bundles found!" ;
+				return failure(filteredBundles.size() + " bundles found!") ;
 			}
 			
 		} catch (TelosysToolsException e) {
@@ -16,11 +16,16 @@
 package org.telosys.tools.cli.commands;
 
 import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 import jline.console.ConsoleReader;
 
 import org.telosys.tools.cli.CommandWithModel;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.model.ModelHeapReport;
+import org.telosys.tools.cli.model.ValidationReport;
 import org.telosys.tools.generic.model.Model;
 
 /**
@@ -31,6 +36,10 @@ import org.telosys.tools.generic.model.Model;
  */
 public class CheckModelCommand extends CommandWithModel {
 
+	private static final String CHANGED_OPTION = "--changed" ;
+	private static final String HEAP_OPTION    = "--heap" ;
+	private static final String TIMINGS_OPTION = "--timings" ;
+
 	/**
 	 * Constructor
 	 * @param out
@@ -51,34 +60,101 @@ public class CheckModelCommand extends CommandWithModel {
 
 	@Override
 	public String getDescription() {
-		return "Check the current/given model";
+		return "Check the current/given model, exact name or name prefix (only the entities modified since the previous check with '--changed', "
+				+ "with the model heap usage with '--heap', with the validation timings with '--timings')";
 	}
 	
 	@Override
 	public String getUsage() {
-		return "cm [model-name]";
+		return "cm [model-name] [--changed] [--heap] [--timings]";
 	}
 	
 	@Override
 	public String execute(String[] args) {
-		
-		if ( checkHomeDirectoryDefined() ) {
-			File modelFile = findModelFile(args) ;
-			// if found => launch the editor
+		boolean changedOnly = false ;
+		boolean heapReport = false ;
+		boolean timings = false ;
+		List<String> arguments = new LinkedList<>();
+		for ( String arg : args ) {
+			if ( CHANGED_OPTION.equals(arg) ) {
+				changedOnly = true ;
+			}
+			else if ( HEAP_OPTION.equals(arg) ) {
+				heapReport = true ;
+			}
+			else if ( TIMINGS_OPTION.equals(arg) ) {
+				timings = true ;
+			}
+			else {
+				arguments.add(arg);
+			}
+		}
+		String[] commandArgs = arguments.toArray(new String[arguments.size()]);
+		if ( checkArguments(commandArgs, 0, 1) && checkHomeDirectoryDefined() ) {
+			File modelFile = findModelFile(commandArgs) ;
+			// if found => check the model
 			if ( modelFile != null ) {
-				return checkModel(modelFile);
+				return checkModel(modelFile, changedOnly, heapReport, timings);
 			}
 		}
 		return null;
 	}
 		
-	private String checkModel(File modelFile) {
-		// Just try to load the model to check it 
+	private String checkModel(File modelFile, boolean changedOnly, boolean heapReport, boolean timings) {
+		// Try to load the model 
 		Model model = loadModel(modelFile);
 		if ( model != null ) {
 			int n = model.getEntities() != null ? model.getEntities().size() : 0 ; 
-			print( "Model OK (file '" + modelFile.getName() + "' loaded : " + n + " entities)" );
+			print( "Model loaded (file '" + modelFile.getName() + "' : " + n + " entities)" );
+			// Apply the validation rules
+			ValidationReport report = getEnvironment().getModelValidator().validate(modelFile, model, changedOnly);
+			printValidationReport(report, changedOnly);
+			if ( timings ) {
+				printTimings(report);
+			}
+			if ( heapReport ) {
+				printHeapReport(model);
+			}
 		}
 		return null ;
 	}
+
+	private void printValidationReport(ValidationReport report, boolean changedOnly) {
+		for ( Map.Entry<String, List<String>> entry : report.getMessages().entrySet() ) {
+			print( " . " + entry.getKey() + " : " );
+			for ( String message : entry.getValue() ) {
+				print( "     " + message );
+			}
+		}
+		if ( changedOnly ) {
+			print( report.getValidated() + " entities checked, " + report.getReused() + " unchanged" );
+		}
+		int problems = report.getProblemsCount() ;
+		if ( problems == 0 ) {
+			print( "Model OK" );
+		}
+		else {
+			printFailure( problems + " problem(s) found" ); // invalid model => command failed
+		}
+	}
+
+	private void printTimings(ValidationReport report) {
+		print( "Validation time : " + millis(report.getElapsedTime()) + " ms" );
+		String[] rules = report.getRulesNames();
+		long[] timings = report.getRulesTimings();
+		for ( int i = 0 ; i < rules.length ; i++ ) {
+			print( " . rule '" + rules[i] + "' : " + millis(timings[i]) + " ms" );
+		}
+	}
+
+	private String millis(long nanos) {
+		return String.format("%.3f", nanos / 1000000.0 );
+	}
+
+	private void printHeapReport(Model model) {
+		ModelHeapReport report = ModelHeapReport.build(model);
+		for ( String line : report.toLines() ) {
+			print( line );
+		}
+	}
 }
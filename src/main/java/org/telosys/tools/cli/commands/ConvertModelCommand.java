@@ -0,0 +1,144 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.api.ApiUtil;
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.cli.CommandWithModel;
+import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.model.DslModelWriter;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.dsl.DslModelUtil;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * 'cvm' command : converts a DB model to a new DSL model
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class ConvertModelCommand extends CommandWithModel {
+
+	/**
+	 * Constructor
+	 * @param out
+	 */
+	public ConvertModelCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+	
+	@Override
+	public String getName() {
+		return "cvm";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Convert Model" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Convert the current/given DB model to a new DSL model (one '.entity' file per table)";
+	}
+	
+	@Override
+	public String getUsage() {
+		return "cvm [dbmodel-name] new-model-name";
+	}
+	
+	@Override
+	public String execute(String[] args) {
+		if ( checkArguments(args, 1, 2) && checkHomeDirectoryDefined() ) {
+			if ( args.length > 2 ) {
+				return convertModel(args[1], args[2]);
+			}
+			else if ( checkModelDefined() ) {
+				return convertModel(getCurrentModel(), args[1]);
+			}
+		}
+		return null ;
+	}
+	
+	private String convertModel(String dbModelName, String newModelName) {
+		// 1) Load the DB model 
+		File dbModelFile = getModelFile(dbModelName);
+		if ( dbModelFile == null ) {
+			return null ;
+		}
+		if ( ApiUtil.isDslModelFile(dbModelFile) ) {
+			return failure("'" + dbModelFile.getName() + "' is not a DB model") ;
+		}
+		long t0 = System.nanoTime();
+		Model model = loadModel(dbModelFile);
+		if ( model == null ) {
+			return null ;
+		}
+		long t1 = System.nanoTime();
+		
+		// 2) Create the new DSL model and write the entities
+		TelosysProject telosysProject = getTelosysProject();
+		File modelFile ;
+		try {
+			modelFile = telosysProject.createNewDslModel(newModelName);
+			getEnvironment().invalidateModelIndex();
+		} catch (TelosysToolsException e) {
+			return failure("Cannot create model '" + newModelName + "' Exception : " + e.getMessage()) ;
+		}
+		File modelFolder = DslModelUtil.getModelFolder(modelFile);
+		Map<String, String> errors ;
+		try {
+			errors = DslModelWriter.writeEntities(model, modelFolder, dbModelFile.getName());
+		} catch (IOException e) {
+			deleteModel(modelFile);
+			return failure("Cannot write model '" + newModelName + "' IOException : " + e.getMessage()) ;
+		}
+		long t2 = System.nanoTime();
+		
+		// 3) Result
+		if ( ! errors.isEmpty() ) {
+			// nothing written => no partial model
+			deleteModel(modelFile);
+			for ( Map.Entry<String, String> entry : errors.entrySet() ) {
+				printError( "'" + entry.getKey() + "' : " + entry.getValue() );
+			}
+			return failure("Model '" + newModelName + "' not created (" + errors.size() + " entity error(s))") ;
+		}
+		print( "Model '" + newModelName + "' created (" + modelFile.getName() + ") : " 
+				+ model.getEntities().size() + " entities written" );
+		print( "Loading : " + millis(t1 - t0) + " ms, writing : " + millis(t2 - t1) + " ms" );
+		return "Use 'm " + newModelName + "' to select the new model" ;
+	}
+
+	private void deleteModel(File modelFile) {
+		try {
+			getTelosysProject().deleteDslModel(modelFile);
+		} catch (TelosysToolsException e) {
+			printError(e);
+		}
+		getEnvironment().invalidateModelIndex();
+	}
+
+	private long millis(long nanos) {
+		return nanos / 1000000 ;
+	}
+}
@@ -92,6 +92,8 @@ public class DeleteBundleCommand extends CommandWithBundles {
 		TelosysProject telosysProject = getTelosysProject();
 		try {
 			if ( telosysProject.deleteBundle(bundleName) ) {
+				getEnvironment().getTargetsDefinitionsCache().invalidate(bundleName);
+				getEnvironment().invalidateBundlesIndex();
 				print("Bundle '"+ bundleName + "' deleted.");
 			}
 			else {
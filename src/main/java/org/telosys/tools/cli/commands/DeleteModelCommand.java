@@ -76,6 +76,7 @@ public class DeleteModelCommand extends CommandWithModel {
 			printDebug("modelFile = " + modelFile.getAbsolutePath() );
 			if ( confirm("Do you realy want to delete model '" + modelName + "'") ) {
 				deleteModel(modelFile );
+				getEnvironment().invalidateModelIndex();
 				// If the current model has been deleted => update env & prompt
 				if ( isCurrentModel(modelFile) ) {
 					unsetCurrentModel();
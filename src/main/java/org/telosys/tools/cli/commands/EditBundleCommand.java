@@ -93,6 +93,8 @@ public class EditBundleCommand extends CommandWithBundles {
 		try {
 			File file = telosysProject.getBundleConfigFile(bundleName);
 			if ( file.exists() ) {
+				// reloaded at the next use (file modification also detected later)
+				getEnvironment().getTargetsDefinitionsCache().invalidate(bundleName);
 				return launchEditor(file.getAbsolutePath() );
 			}
 			else {
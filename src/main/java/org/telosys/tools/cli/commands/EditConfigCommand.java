@@ -58,6 +58,8 @@ public class EditConfigCommand extends Command {
 		if ( checkHomeDirectoryDefined() ) {
 			String fileToBeEdited = getTelosysToolsCfgFullPath();
 			if (fileToBeEdited != null) {
+				// the configuration will be reloaded (file modification also detected later)
+				getEnvironment().invalidateTelosysProject();
 				return launchEditor(fileToBeEdited);
 			} else {
 				return "ERROR: file '" + Const.TELOSYS_TOOLS_CFG + "' not found";
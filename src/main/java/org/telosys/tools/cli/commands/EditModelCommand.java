@@ -50,7 +50,7 @@ public class EditModelCommand extends CommandWithModel {
 
 	@Override
 	public String getDescription() {
-		return "Edit the current/given model";
+		return "Edit the current/given model (model-name : exact name or name prefix)";
 	}
 	
 	@Override
@@ -98,6 +98,7 @@ public class EnvCommand extends Command {
 		appendLine(sb, ". Current GitHub store  : " + undefinedIfNull(environment.getCurrentGitHubStore()) );
 		appendLine(sb, ". Current model         : " + undefinedIfNull(environment.getCurrentModel()) );
 		appendLine(sb, ". Current bundle        : " + undefinedIfNull(environment.getCurrentBundle()) );
+		appendLine(sb, ". Bundles cache         : " + environment.getTargetsDefinitionsCache().getStatistics() );
 		
 		return sb.toString();
 	}
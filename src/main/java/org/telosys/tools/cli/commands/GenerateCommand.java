@@ -15,12 +15,17 @@
  */
 package org.telosys.tools.cli.commands;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.api.TelosysProject;
 import org.telosys.tools.cli.CommandWithModel;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.OutputFormat;
+import org.telosys.tools.cli.RecordPrinter;
+import org.telosys.tools.cli.commons.Criteria;
 import org.telosys.tools.cli.commons.CriteriaUtil;
 import org.telosys.tools.cli.commons.EntityUtil;
 import org.telosys.tools.cli.commons.TargetUtil;
@@ -67,20 +72,24 @@ public class GenerateCommand extends CommandWithModel {
 	
 	@Override
 	public String getUsage() {
-		return "gen *|entity-name *|template-name [-r]";
+		return "gen *|entity-name *|template-name [-r] [--json|--ndjson]";
 	}
 
 	@Override
-	public String execute(String[] args) {
-		if ( checkModelDefined() && checkBundleDefined() ) {
-			// Check arguments :
-			// 1 : gen -r
-			// 2 : gen * * 
-			// 3 : gen * * -r 
-			if ( checkArguments(args, 1, 2, 3 ) ) {
-				generate(args);
-				return null;
-			}
+	public String execute(String[] commandArgs) {
+		OutputFormat format = getOutputFormat(commandArgs);
+		String[] args = removeOutputFormatOptions(commandArgs);
+		// records printer for a structured output ( '--json' or '--ndjson' ), created first to get the errors as records
+		RecordPrinter printer = format != OutputFormat.TEXT ? newRecordPrinter(format) : null ;
+		// Check arguments :
+		// 1 : gen -r
+		// 2 : gen * * 
+		// 3 : gen * * -r 
+		if ( checkModelDefined() && checkBundleDefined() && checkArguments(args, 1, 2, 3 ) ) {
+			generate(args, printer);
+		}
+		if ( printer != null ) {
+			printer.end();
 		}
 		return null ;
 	}
@@ -88,29 +97,38 @@ public class GenerateCommand extends CommandWithModel {
 	/**
 	 * Generation entry point
 	 * @param args all the arguments as provided by the command line (0 to N)
+	 * @param printer the records printer (or null for a text output)
 	 */
-	private void generate(String[] args)  {
+	private void generate(String[] args, RecordPrinter printer)  {
 		GenerationTaskResult result = null ;
 		try {
 			if ( args.length == 3 ) {
 				// gen * * 
-				result = generate(args[1], args[2], false);
+				result = generate(args[1], args[2], false, printer);
 			}
 			else if ( args.length == 4 ) {
 				// gen * * -r 
 				if ( checkResourcesOption(args[3]) ) {
-					result = generate(args[1], args[2], true);
+					result = generate(args[1], args[2], true, printer);
 				}
 			}
 			else if ( args.length == 2 ) {
 				// gen -r 
 				if ( checkResourcesOption(args[1]) ) {
-					result = generateResources();
+					result = generateResources(printer);
 				}
 			}
 			
 			if ( result != null ) {
-				printResult(result);
+				if ( printer != null ) {
+					printResultRecords(result, printer);
+				}
+				else {
+					printResult(result);
+				}
+				if ( result.getNumberOfGenerationErrors() > 0 ) {
+					getEnvironment().setCommandFailed(); // generation errors => command failed
+				}
 			}
 		} catch (TelosysToolsException e) {
 			printError(e);
@@ -122,7 +140,7 @@ public class GenerateCommand extends CommandWithModel {
 			return true ;
 		}
 		else {
-			print("Invalid argument '" + option + "' ( '-r' expected ) ");
+			printFailure("Invalid argument '" + option + "' ( '-r' expected ) ");
 			return false ;
 		}
 	}
@@ -131,50 +149,69 @@ public class GenerateCommand extends CommandWithModel {
 	 * @param argEntityNames argument for entities ( eg '*', 'Car', 'Car,Driver', etc )
 	 * @param argTemplateNames argument for templates ( eg '*', 'CacheFilter_java.vm', '_java,_xml', etc )
 	 * @param flagResources resources generation flag : true = generate resources
+	 * @param printer the records printer (or null for a text output)
 	 * @return 
 	 * @throws TelosysToolsException
 	 */
 	private GenerationTaskResult generate(String argEntityNames, String argTemplateNames, 
-			boolean flagResources) throws TelosysToolsException {
+			boolean flagResources, RecordPrinter printer) throws TelosysToolsException {
 		
 		TelosysProject telosysProject = getTelosysProject();
 		// Loads the model for the current model name
 		Model model = loadCurrentModel();
+		if ( model == null ) {
+			return null ; // errors already printed
+		}
 		List<Entity> entities = buildEntitiesList(argEntityNames, model);
 		
 		String bundleName = getCurrentBundle() ;
 		List<TargetDefinition> targetDefinitions = buildTargetsList(argTemplateNames);
 		
-		print("Entities ( model = '"+getCurrentModel()+"' ) : ");
-		print ( EntityUtil.buildListAsString(entities) );
 		List<String> entityNames = EntityUtil.toEntityNames(entities);
+		if ( printer != null ) {
+			for ( Entity entity : entities ) {
+				printer.print(typedRecord("entity", EntityUtil.toRecord(entity)));
+			}
+			for ( TargetDefinition td : targetDefinitions ) {
+				printer.print(typedRecord("template", TargetUtil.toRecord(td)));
+			}
+		}
+		else {
+			print("Entities ( model = '"+getCurrentModel()+"' ) : ");
+			print ( EntityUtil.buildListAsString(entities) );
 
-		print("Templates ( bundle = '"+bundleName+"' ) : ");
-		print ( TargetUtil.buildListAsString(targetDefinitions) );
+			print("Templates ( bundle = '"+bundleName+"' ) : ");
+			print ( TargetUtil.buildListAsString(targetDefinitions) );
 
-		print("Copy resources : " + ( flagResources ? "yes" : "no" ));
+			print("Copy resources : " + ( flagResources ? "yes" : "no" ));
+		}
 
 		if ( entityNames.isEmpty() || targetDefinitions.isEmpty() ) {
-			print("No entity or no templates => nothing to generate ");
+			printStatus(printer, "No entity or no templates => nothing to generate ");
 			return null ;
 		}
 		else {
-			if ( confirm("Do you want to launch the generation") ) {
-				print("Generation in progress...");
+			if ( confirmGeneration("Do you want to launch the generation", printer) ) {
+				if ( printer == null ) {
+					print("Generation in progress...");
+				}
 				return telosysProject.launchGeneration(model, entityNames, bundleName, targetDefinitions, flagResources);			
 			}
 			else {
-				print("Generation canceled.");
+				printStatus(printer, "Generation canceled.");
 				return null ;
 			}
 		}
 	}
 
-	private GenerationTaskResult generateResources() throws TelosysToolsException {
+	private GenerationTaskResult generateResources(RecordPrinter printer) throws TelosysToolsException {
 		
 		TelosysProject telosysProject = getTelosysProject();
 		
 		Model model = loadCurrentModel(); // Loads the model for the current model name
+		if ( model == null ) {
+			return null ; // errors already printed
+		}
 		List<String> entityNames = new LinkedList<>(); // Void list
 		
 		String bundleName = getCurrentBundle() ;
@@ -182,29 +219,49 @@ public class GenerateCommand extends CommandWithModel {
 		List<TargetDefinition> targetDefinitions = new LinkedList<>(); // Void list
 		List<TargetDefinition> resources = targetsDefinitions.getResourcesTargets();
 		if ( resources.isEmpty() ) {
-			print("No resource in bundle '" + bundleName + "'");
+			printStatus(printer, "No resource in bundle '" + bundleName + "'");
 		}
 		else {
-			if ( confirm("Do you want to copy the resources from '" + bundleName + "'" ) ) {
-				print("Generation in progress...");
+			if ( confirmGeneration("Do you want to copy the resources from '" + bundleName + "'", printer) ) {
+				if ( printer == null ) {
+					print("Generation in progress...");
+				}
 				return telosysProject.launchGeneration(model, entityNames, bundleName, targetDefinitions, true);			
 			}
 			else {
-				print("Generation canceled.");
+				printStatus(printer, "Generation canceled.");
 			}
 		}
 		return null ;
 	}
 
 	/**
-	 * Builds a list of entities using the given argument ( eg : '*', 'Car', 'Car,Dog', 'Dog,Driver,Car' )
+	 * Asks for the generation confirmation <br>
+	 * No question in a structured output : the generation requires auto-confirm ( '-y' )
+	 * @param message
+	 * @param printer the records printer (or null for a text output)
+	 * @return
+	 */
+	private boolean confirmGeneration(String message, RecordPrinter printer) {
+		if ( printer == null ) {
+			return confirm(message, OutputFormat.TEXT);
+		}
+		if ( confirm(message, printer.getFormat()) ) {
+			return true ;
+		}
+		printError("Confirmation required with a structured output (launch with '-y')");
+		return false ;
+	}
+
+	/**
+	 * Builds a list of entities using the given argument ( eg : '*', 'Car', 'Car,Dog', 'Car*', '/^Car$/', '!Audit*' )
 	 * @param arg
 	 * @param model
 	 * @return
 	 */
 	private List<Entity> buildEntitiesList(String arg, Model model) {
-		List<String> criteria = CriteriaUtil.buildCriteriaFromArg(arg) ;
-		return EntityUtil.filter(model.getEntities(), criteria);
+		Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg(arg) ;
+		return EntityUtil.filter(model, criteria);
 	}
 	
 	/**
@@ -215,8 +272,8 @@ public class GenerateCommand extends CommandWithModel {
 	 */
 	private List<TargetDefinition> buildTargetsList(String arg) {
 		TargetsDefinitions targetDefinitions = getCurrentTargetsDefinitions();
-		List<String> criteria = CriteriaUtil.buildCriteriaFromArg(arg) ;
-		return TargetUtil.filter(targetDefinitions.getTemplatesTargets(), criteria);
+		Criteria criteria = CriteriaUtil.buildTemplateCriteriaFromArg(arg) ;
+		return TargetUtil.filter(targetDefinitions, criteria);
 	}
 	
 	private void printResult( GenerationTaskResult result ) {
@@ -244,5 +301,63 @@ public class GenerateCommand extends CommandWithModel {
 			}
 		}
 	}
-	
+
+	//-------------------------------------------------------------------------
+	// Structured output ( '--json' or '--ndjson' )
+	//-------------------------------------------------------------------------
+	/**
+	 * Returns a copy of the given record with its type as first field ( eg "record":"entity" )
+	 * @param type
+	 * @param record
+	 * @return
+	 */
+	private Map<String, Object> typedRecord(String type, Map<String, Object> record) {
+		Map<String, Object> typedRecord = new LinkedHashMap<>();
+		typedRecord.put("record", type);
+		typedRecord.putAll(record);
+		return typedRecord ;
+	}
+
+	/**
+	 * Prints a status message (as a 'status' record for a structured output)
+	 * @param printer the records printer (or null for a text output)
+	 * @param message
+	 */
+	private void printStatus(RecordPrinter printer, String message) {
+		if ( printer != null ) {
+			Map<String, Object> record = new LinkedHashMap<>();
+			record.put("record", "status");
+			record.put("message", message.trim());
+			printer.print(record);
+		}
+		else {
+			print(message);
+		}
+	}
+
+	private void printResultRecords( GenerationTaskResult result, RecordPrinter printer ) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("record", "result");
+		record.put("filesGenerated", result.getNumberOfFilesGenerated());
+		record.put("resourcesCopied", result.getNumberOfResourcesCopied());
+		record.put("errors", result.getNumberOfGenerationErrors());
+		printer.print(record);
+		List<ErrorReport> errors = result.getErrors() ;
+		if ( errors != null ) {
+			for ( ErrorReport err : errors ) {
+				Map<String, Object> errorRecord = new LinkedHashMap<>();
+				errorRecord.put("record", "error");
+				errorRecord.put("type", err.getErrorType());
+				errorRecord.put("message", err.getMessage());
+				List<String> exceptions = new LinkedList<>();
+				Throwable ex = err.getException();
+				while ( ex != null ) {
+					exceptions.add(ex.getClass().getSimpleName() + " : " + ex.getMessage());
+					ex = ex.getCause();
+				}
+				errorRecord.put("exceptions", exceptions);
+				printer.print(errorRecord);
+			}
+		}
+	}
 }
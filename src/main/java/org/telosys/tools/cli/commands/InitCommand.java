@@ -56,7 +56,10 @@ public class InitCommand  extends Command {
 		
 		if ( checkHomeDirectoryDefined() ) {
 			TelosysProject telosysProject = getTelosysProject();
-			return telosysProject.initProject();
+			String result = telosysProject.initProject();
+			// new configuration file => new project instance
+			getEnvironment().invalidateTelosysProject();
+			return result ;
 		}
 		return null ;
 	}
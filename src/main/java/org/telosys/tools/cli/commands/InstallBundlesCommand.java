@@ -103,6 +103,8 @@ public class InstallBundlesCommand extends CommandWithGitHub {
 			for ( String bundleName : bundlesNames ) {
 				try {
 					telosysProject.downloadAndInstallBundle(githubStoreName, bundleName);
+					getEnvironment().getTargetsDefinitionsCache().invalidate(bundleName);
+					getEnvironment().invalidateBundlesIndex();
 					print( " . '" + bundleName + "' : installed. ");
 				} catch (TelosysToolsException e) {
 					print( " . '" + bundleName + "' : ERROR (cannot install) : "+ e.getMessage() );
@@ -0,0 +1,73 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.BackgroundJob;
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.Environment;
+
+public class JobsCommand extends Command {
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public JobsCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "jobs";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Jobs" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Print the background jobs ( command lines launched with a trailing '&' )";
+	}
+
+	@Override
+	public String getUsage() {
+		return "jobs";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		List<BackgroundJob> jobs = getEnvironment().getCommandProvider().getProjectContexts()
+				.getBackgroundJobs().getJobs();
+		if ( jobs.isEmpty() ) {
+			return "No job" ;
+		}
+		List<String> list = new LinkedList<>();
+		for ( BackgroundJob job : jobs ) {
+			list.add(job.toString());
+			list.add("      " + job.getProgress());
+		}
+		printList(list);
+		return null ;
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.BackgroundJob;
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.Environment;
+
+public class KillCommand extends Command {
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public KillCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "kill";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Kill job" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Cancel a background job (the job stops at its next output)";
+	}
+
+	@Override
+	public String getUsage() {
+		return "kill job-id";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		if ( args.length != 2 ) {
+			return invalidUsage("job id expected");
+		}
+		BackgroundJob job = getEnvironment().getCommandProvider().getProjectContexts().getBackgroundJobs().get(args[1]);
+		if ( job == null ) {
+			return failure("Unknown job '" + args[1] + "'");
+		}
+		if ( ! job.isRunning() ) {
+			return "Job [" + job.getId() + "] already finished (" + job.getStatus() + ")" ;
+		}
+		job.cancel();
+		return "Job [" + job.getId() + "] cancellation requested" ;
+	}
+}
@@ -15,10 +15,14 @@
  */
 package org.telosys.tools.cli.commands;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.cli.CommandWithBundles;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.OutputFormat;
+import org.telosys.tools.cli.RecordPrinter;
 import org.telosys.tools.commons.TelosysToolsException;
 
 import jline.console.ConsoleReader;
@@ -50,23 +54,32 @@ public class ListBundlesCommand extends CommandWithBundles {
 	
 	@Override
 	public String getUsage() {
-		return "lb [name-part1 name-part2 ...]";
+		return "lb [name-part1 name-part2 ...] [--json|--ndjson]";
 	}
 	
 	@Override
 	public String execute(String[] args) {
 		if ( checkHomeDirectoryDefined() ) {
-			listBundles(args);
+			listBundles(removeOutputFormatOptions(args), getOutputFormat(args));
 		}
 		return null ;
 	}
 
-	private void listBundles(String[] commandArgs) {
+	private void listBundles(String[] commandArgs, OutputFormat format) {
 		
 		try {
 //			List<String> bundleNames = BundlesUtil.getExistingBundles(getTelosysProject(), commandArgs);	
 			List<String> bundleNames = getInstalledBundles(commandArgs);
-			if ( bundleNames.isEmpty() ) {
+			if ( format != OutputFormat.TEXT ) {
+				RecordPrinter printer = newRecordPrinter(format);
+				for ( String bundleName : bundleNames ) {
+					Map<String, Object> record = new LinkedHashMap<>();
+					record.put("bundle", bundleName);
+					printer.print(record);
+				}
+				printer.end();
+			}
+			else if ( bundleNames.isEmpty() ) {
 				print("No bundle found.") ;
 			}
 			else {
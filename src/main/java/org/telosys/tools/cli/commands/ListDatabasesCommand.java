@@ -15,11 +15,15 @@
  */
 package org.telosys.tools.cli.commands;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.api.TelosysProject;
 import org.telosys.tools.cli.Command;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.OutputFormat;
+import org.telosys.tools.cli.RecordPrinter;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
@@ -54,18 +58,20 @@ public class ListDatabasesCommand extends Command {
 	
 	@Override
 	public String getUsage() {
-		return "ldb [id]";
+		return "ldb [id] [--json|--ndjson]";
 	}
 
 	@Override
-	public String execute(String[] args) {
+	public String execute(String[] commandArgs) {
+		OutputFormat format = getOutputFormat(commandArgs);
+		String[] args = removeOutputFormatOptions(commandArgs);
 		if ( checkHomeDirectoryDefined() ) {
 			if ( args.length > 1 ) {
 				// database-id
 				String argId = args[1];
 				Integer id = StrUtil.getIntegerObject(argId);
 				if ( id != null ) {
-					return listDatabases(id);
+					return listDatabases(id, format);
 				}
 				else {
 					print("Invalid database id '" + argId + "'");					
@@ -73,15 +79,19 @@ public class ListDatabasesCommand extends Command {
 			}
 			else {
 				// no database-id
-				return listDatabases(null);
+				return listDatabases(null, format);
 			}			
 		}
 		return null ;
 	}
 
-	private String listDatabases(Integer id) {
+	private String listDatabases(Integer id, OutputFormat format) {
 		TelosysProject telosysProject = getTelosysProject();
 		try {
+			if ( format != OutputFormat.TEXT ) {
+				printDatabasesRecords(telosysProject, id, format);
+				return null ;
+			}
 			StringBuilder sb = new StringBuilder();
 			if ( id != null ) {
 				DatabaseConfiguration dbConfig = telosysProject.getDatabaseConfiguration(id);
@@ -113,6 +123,49 @@ public class ListDatabasesCommand extends Command {
 		return null ;
 	}
 
+	/**
+	 * Prints the databases configurations as records ( '--json' or '--ndjson' ) <br>
+	 * The password is not printed 
+	 * @param telosysProject
+	 * @param id the database id or null for all the databases
+	 * @param format
+	 * @throws TelosysToolsException
+	 */
+	private void printDatabasesRecords(TelosysProject telosysProject, Integer id, OutputFormat format) throws TelosysToolsException {
+		DatabasesConfigurations databasesConfigurations = telosysProject.getDatabasesConfigurations();
+		int defaultId = databasesConfigurations.getDatabaseDefaultId();
+		if ( id != null && telosysProject.getDatabaseConfiguration(id) == null ) {
+			printFailure("Database " + id + " is not defined.");
+			return ;
+		}
+		RecordPrinter printer = newRecordPrinter(format);
+		for ( DatabaseConfiguration dbConfig : databasesConfigurations.getDatabaseConfigurationsList() ) {
+			if ( id == null || id.intValue() == dbConfig.getDatabaseId() ) {
+				printer.print(toRecord(dbConfig, defaultId));
+			}
+		}
+		printer.end();
+	}
+
+	private Map<String, Object> toRecord(DatabaseConfiguration dbConfig, int defaultId) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("id", dbConfig.getDatabaseId());
+		record.put("name", dbConfig.getDatabaseName());
+		record.put("default", dbConfig.getDatabaseId() == defaultId);
+		record.put("driver", dbConfig.getDriverClass());
+		record.put("url", dbConfig.getJdbcUrl());
+		record.put("user", dbConfig.getUser());
+		record.put("typeName", dbConfig.getTypeName());
+		record.put("dialect", dbConfig.getDialect());
+		record.put("catalog", dbConfig.getMetadataCatalog());
+		record.put("schema", dbConfig.getMetadataSchema());
+		record.put("tableNamePattern", dbConfig.getMetadataTableNamePattern());
+		record.put("tableTypes", dbConfig.getMetadataTableTypes());
+		record.put("tableNameExclude", dbConfig.getMetadataTableNameExclude());
+		record.put("tableNameInclude", dbConfig.getMetadataTableNameInclude());
+		return record ;
+	}
+
 	private void printDbConfig(StringBuilder sb, DatabaseConfiguration dbConfig) {
 		appendLine(sb, " ");
 		appendLine(sb, "Database '" + dbConfig.getDatabaseId() + "' : " + dbConfig.getDatabaseName() );
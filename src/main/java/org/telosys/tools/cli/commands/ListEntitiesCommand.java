@@ -15,19 +15,29 @@
  */
 package org.telosys.tools.cli.commands;
 
+import java.io.File;
+import java.util.LinkedList;
 import java.util.List;
 
 import jline.console.ConsoleReader;
 
 import org.telosys.tools.cli.CommandWithModel;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.OutputFormat;
+import org.telosys.tools.cli.RecordPrinter;
+import org.telosys.tools.cli.commons.Criteria;
 import org.telosys.tools.cli.commons.CriteriaUtil;
 import org.telosys.tools.cli.commons.EntityUtil;
+import org.telosys.tools.cli.model.EntityIndex;
+import org.telosys.tools.cli.model.EntitySummary;
+import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.generic.model.Entity;
 import org.telosys.tools.generic.model.Model;
 
 public class ListEntitiesCommand extends CommandWithModel {
 
+	private static final String FULL_OPTION = "--full" ;
+
 	/**
 	 * Constructor
 	 * @param out
@@ -48,32 +58,92 @@ public class ListEntitiesCommand extends CommandWithModel {
 
 	@Override
 	public String getDescription() {
-		return "List the entities for the current model";
+		return "List the entities for the current model (from the model index, or from the full model with '--full' to get the model warnings)";
 	}
 	
 	@Override
 	public String getUsage() {
-		return "le [*|pattern|pattern1,pattern2,...]";
+		return "le [*|name|pattern*|/regex/|!exclusion,...] [--full] [--json|--ndjson]";
 	}
 	
 	@Override
 	public String execute(String[] args) {
-		
-		if ( checkArguments(args, 0, 1) && checkHomeDirectoryDefined() && checkModelDefined() ) {
-			listEntities(args);
+		boolean full = false ;
+		OutputFormat format = getOutputFormat(args);
+		List<String> arguments = new LinkedList<>();
+		for ( String arg : removeOutputFormatOptions(args) ) {
+			if ( FULL_OPTION.equals(arg) ) {
+				full = true ;
+			}
+			else {
+				arguments.add(arg);
+			}
+		}
+		String[] commandArgs = arguments.toArray(new String[arguments.size()]);
+		if ( checkArguments(commandArgs, 0, 1) && checkHomeDirectoryDefined() && checkModelDefined() ) {
+			String arg = commandArgs.length > 1 ? commandArgs[1] : null ;
+			if ( full ) {
+				listEntities(arg, format);
+			}
+			else {
+				listEntitiesFromIndex(arg, format);
+			}
 		}
 		return null ;		
 	}
 	
-	private void listEntities(String[] args) {
+	/**
+	 * Lists the entities from the fully loaded model
+	 * @param arg
+	 * @param format
+	 */
+	private void listEntities(String arg, OutputFormat format) {
 		Model model = loadCurrentModel();
 		if ( model != null ) {
-			List<Entity> entities = model.getEntities();
-			List<String> criteria = CriteriaUtil.buildCriteriaFromArg(args.length > 1 ? args[1] : null) ;
+			Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg(arg) ;
 			
-			List<Entity> selectedEntities = EntityUtil.filter(entities, criteria);
+			List<Entity> selectedEntities = EntityUtil.filter(model, criteria);
 
-			print ( EntityUtil.buildListAsString(selectedEntities) );
+			if ( format == OutputFormat.TEXT ) {
+				print ( EntityUtil.buildListAsString(selectedEntities) );
+			}
+			else {
+				RecordPrinter printer = newRecordPrinter(format);
+				for ( Entity entity : selectedEntities ) {
+					printer.print(EntityUtil.toRecord(entity));
+				}
+				printer.end();
+			}
+		}
+	}
+
+	/**
+	 * Lists the entities from the model index (no model parsing)
+	 * @param arg
+	 * @param format
+	 */
+	private void listEntitiesFromIndex(String arg, OutputFormat format) {
+		File modelFile = getModelFile(getCurrentModel());
+		if ( modelFile != null ) {
+			try {
+				List<EntitySummary> entities = EntityIndex.build(modelFile);
+				Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg(arg) ;
+				
+				List<EntitySummary> selectedEntities = EntityUtil.filterSummaries(entities, criteria);
+				
+				if ( format == OutputFormat.TEXT ) {
+					print ( EntityUtil.buildSummariesListAsString(selectedEntities) );
+				}
+				else {
+					RecordPrinter printer = newRecordPrinter(format);
+					for ( EntitySummary entity : selectedEntities ) {
+						printer.print(EntityUtil.toRecord(entity));
+					}
+					printer.end();
+				}
+			} catch (TelosysToolsException e) {
+				printError(e);
+			}
 		}
 	}
 }
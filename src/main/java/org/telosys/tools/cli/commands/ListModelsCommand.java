@@ -20,12 +20,13 @@ import java.util.List;
 
 import jline.console.ConsoleReader;
 
-import org.telosys.tools.api.TelosysProject;
 import org.telosys.tools.cli.Command;
 import org.telosys.tools.cli.Environment;
 import org.telosys.tools.commons.TelosysToolsException;
 
 public class ListModelsCommand extends Command {
+
+	private static final String REFRESH_OPTION = "-r" ;
 	
 	/**
 	 * Constructor
@@ -47,26 +48,28 @@ public class ListModelsCommand extends Command {
 
 	@Override
 	public String getDescription() {
-		return "List the models";
+		return "List the models (use '-r' to refresh the models index)";
 	}
 	
 	@Override
 	public String getUsage() {
-		return "lm";
+		return "lm [-r]";
 	}
 
 	@Override
 	public String execute(String[] args) {
 		if ( checkHomeDirectoryDefined() ) {
+			if ( args.length > 1 && REFRESH_OPTION.equals(args[1]) ) {
+				getEnvironment().invalidateModelIndex();
+			}
 			return listModels();
 		}
 		return null ;
 	}
 
 	private String listModels() {
-		TelosysProject telosysProject = getTelosysProject();
 		try {
-			List<File> files = telosysProject.getModels();
+			List<File> files = getEnvironment().getModelIndex().getModels();
 			StringBuilder sb = new StringBuilder();
 			for ( File f : files ) {
 				appendLine(sb, " . " + f.getName() );
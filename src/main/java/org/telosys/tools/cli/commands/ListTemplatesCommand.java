@@ -21,6 +21,9 @@ import jline.console.ConsoleReader;
 
 import org.telosys.tools.cli.Command;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.OutputFormat;
+import org.telosys.tools.cli.RecordPrinter;
+import org.telosys.tools.cli.commons.Criteria;
 import org.telosys.tools.cli.commons.CriteriaUtil;
 import org.telosys.tools.cli.commons.TargetUtil;
 import org.telosys.tools.commons.bundles.TargetDefinition;
@@ -60,22 +63,33 @@ public class ListTemplatesCommand extends Command {
 	
 	@Override
 	public String getUsage() {
-		return "lt [*|pattern|pattern1,pattern2,...]";
+		return "lt [*|pattern|pattern*|/regex/|!exclusion,...] [--json|--ndjson]";
 	}
 	
 	@Override
 	public String execute(String[] args) {
-		if ( checkArguments(args, 0, 1) && checkHomeDirectoryDefined() && checkBundleDefined() ) {
-			return listTemplates(args);
+		OutputFormat format = getOutputFormat(args);
+		String[] commandArgs = removeOutputFormatOptions(args);
+		if ( checkArguments(commandArgs, 0, 1) && checkHomeDirectoryDefined() && checkBundleDefined() ) {
+			return listTemplates(commandArgs, format);
 		}
 		return null ;
 	}
 	
-	private String listTemplates(String[] args) {
+	private String listTemplates(String[] args, OutputFormat format) {
 		TargetsDefinitions targetDefinitions = getCurrentTargetsDefinitions();
-		List<String> criteria = CriteriaUtil.buildCriteriaFromArg(args.length > 1 ? args[1] : null) ;
-		List<TargetDefinition> selectedTargets = TargetUtil.filter(targetDefinitions.getTemplatesTargets(), criteria);
-		print ( TargetUtil.buildListAsString(selectedTargets) );
+		Criteria criteria = CriteriaUtil.buildTemplateCriteriaFromArg(args.length > 1 ? args[1] : null) ;
+		List<TargetDefinition> selectedTargets = TargetUtil.filter(targetDefinitions, criteria);
+		if ( format == OutputFormat.TEXT ) {
+			print ( TargetUtil.buildListAsString(selectedTargets) );
+		}
+		else {
+			RecordPrinter printer = newRecordPrinter(format);
+			for ( TargetDefinition td : selectedTargets ) {
+				printer.print(TargetUtil.toRecord(td));
+			}
+			printer.end();
+		}
 		return null ;
 	}
 }
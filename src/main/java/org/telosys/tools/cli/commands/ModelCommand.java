@@ -50,7 +50,7 @@ public class ModelCommand extends CommandWithModel {
 
 	@Override
 	public String getDescription() {
-		return "Set/print the current model";
+		return "Set/print the current model (model-name : exact name or name prefix)";
 	}
 	
 	@Override
@@ -77,6 +77,8 @@ public class ModelCommand extends CommandWithModel {
 		// if found => launch the editor
 		if ( modelFile != null ) {
 			setCurrentModel(modelFile.getName());
+			// Start loading the model in background (errors will be reported by the first command using it)
+			getEnvironment().getModelLoader().preload(getTelosysProject(), modelFile);
 			return "Current model is now '" + getCurrentModel() + "'";
 		}
 		return null ;
@@ -102,6 +102,7 @@ public class NewDbModelCommand extends CommandWithModel {
 			print("");
 			print("Generating the new model...");
 			telosysProject.createNewDbModel(id) ;
+			getEnvironment().invalidateModelIndex();
 			print("New model created.");
 		} catch (TelosysToolsException e) {
 			printError(e);
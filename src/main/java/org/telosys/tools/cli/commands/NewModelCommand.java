@@ -66,22 +66,22 @@ public class NewModelCommand extends Command {
 			}
 		}
 		else {
-			return "No model name";
+			return invalidUsage("no model name");
 		}
 	}
 
 	private String newModel(String modelName) {
 
-		String projectFullPath = getCurrentHome();
-		TelosysProject telosysProject = new TelosysProject(projectFullPath);
+		TelosysProject telosysProject = getTelosysProject();
 		try {
 			File modelFile = telosysProject.createNewDslModel(modelName);
+			getEnvironment().invalidateModelIndex();
 			setCurrentModel(modelFile);
 			return "Model '" + modelName + "' created (" + modelFile.getName() + "), current model is now '" 
 					+ modelName + "'" ;
 		} catch (TelosysToolsException e) {
-			return "Cannot create model '" + modelName + "'"
-					+ " Exception : " + e.getMessage() ;
+			return failure("Cannot create model '" + modelName + "'"
+					+ " Exception : " + e.getMessage() ) ;
 		}
 	}
 }
@@ -52,7 +52,13 @@ public class QuitCommand extends Command {
 
 	@Override
 	public String execute(String[] args) {
+		// the jobs run on daemon threads : they would be killed in the middle of a generation
+		int running = getEnvironment().getCommandProvider().getProjectContexts().getBackgroundJobs().getRunningCount();
+		if ( running > 0 ) {
+			return failure(running + " job(s) still running (use 'wait' or 'kill' before quitting)");
+		}
 		print("bye...");
+		getEnvironment().getCommandProvider().getProjectContexts().close(); // all the contexts
 		System.exit(0);
 		return "";
 	}
@@ -0,0 +1,144 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.CommandStats;
+import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.commons.Histogram;
+import org.telosys.tools.commons.FileUtil;
+
+public class StatsCommand extends Command {
+
+	private static final String EXPORT_OPTION = "--export" ;
+
+	private static final double MS = 1000000.0 ;
+	private static final double KB = 1024.0 ;
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public StatsCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "stats";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Statistics" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Print the statistics of the commands executed in the session (wall time, CPU time, allocated memory) "
+				+ "or export them in a CSV file";
+	}
+
+	@Override
+	public String getUsage() {
+		return "stats [" + EXPORT_OPTION + " file.csv]";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		CommandStats commandStats = getEnvironment().getCommandProvider().getProjectContexts().getCommandStats();
+		if ( args.length == 1 ) {
+			printStats(commandStats);
+			return null ;
+		}
+		else if ( args.length == 3 && EXPORT_OPTION.equals(args[1]) ) {
+			return exportStats(commandStats, args[2]);
+		}
+		else {
+			return invalidUsage(getUsage());
+		}
+	}
+
+	private void printStats(CommandStats commandStats) {
+		List<String> names = commandStats.getCommandNames();
+		if ( names.isEmpty() ) {
+			print("No statistics");
+			return ;
+		}
+		List<String> list = new LinkedList<>();
+		list.add(String.format("%-8s %6s   %-26s %-26s %s", "command", "count", 
+				"wall ms (p50 / p95 / max)", "cpu ms (p50 / p95 / max)", "alloc KB (p50 / p95 / max)"));
+		for ( String name : names ) {
+			CommandStats.CommandMetrics metrics = commandStats.get(name);
+			list.add(String.format("%-8s %6d   %-26s %-26s %s", name, metrics.getWallTime().getCount(), 
+					format(metrics.getWallTime(), MS), format(metrics.getCpuTime(), MS), 
+					format(metrics.getAllocatedBytes(), KB) ));
+		}
+		printList(list);
+	}
+
+	private String format(Histogram histogram, double unit) {
+		if ( histogram.getCount() == 0 ) {
+			return "-" ;
+		}
+		return String.format("%.1f / %.1f / %.1f", 
+				histogram.getValueAtPercentile(50) / unit, 
+				histogram.getValueAtPercentile(95) / unit, 
+				histogram.getMax() / unit );
+	}
+
+	private String exportStats(CommandStats commandStats, String fileName) {
+		File file = new File(fileName);
+		if ( ! file.isAbsolute() ) {
+			file = new File(FileUtil.buildFilePath(getCurrentDirectory(), fileName));
+		}
+		List<String> names = commandStats.getCommandNames();
+		try ( PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) ) {
+			writer.println("command,count,"
+					+ "wall_p50_ns,wall_p95_ns,wall_max_ns,"
+					+ "cpu_p50_ns,cpu_p95_ns,cpu_max_ns,"
+					+ "alloc_p50_bytes,alloc_p95_bytes,alloc_max_bytes");
+			for ( String name : names ) {
+				CommandStats.CommandMetrics metrics = commandStats.get(name);
+				writer.println(name + "," + metrics.getWallTime().getCount() + ","
+						+ csv(metrics.getWallTime()) + "," + csv(metrics.getCpuTime()) + "," 
+						+ csv(metrics.getAllocatedBytes()) );
+			}
+			if ( writer.checkError() ) {
+				throw new IOException("write error");
+			}
+		} catch (IOException e) {
+			return failure("Cannot export statistics in '" + file.getAbsolutePath() + "' : " + e.getMessage());
+		}
+		return names.size() + " command(s) exported in '" + file.getAbsolutePath() + "'" ;
+	}
+
+	private String csv(Histogram histogram) {
+		return histogram.getValueAtPercentile(50) + "," + histogram.getValueAtPercentile(95) + "," + histogram.getMax() ;
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import java.util.Arrays;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.commons.JvmMetrics;
+import org.telosys.tools.cli.commons.ThreadMetrics;
+
+public class TimeCommand extends Command {
+
+	private static final double MS = 1000000.0 ;
+	private static final double MB = 1024.0 * 1024.0 ;
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public TimeCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "time";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Time" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Execute the given command and print the resources consumed "
+				+ "(wall time, CPU time, garbage collections, allocated memory, heap peak)";
+	}
+
+	@Override
+	public String getUsage() {
+		return "time command [args]";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		if ( args.length < 2 ) {
+			return invalidUsage("command expected");
+		}
+		Command command = getEnvironment().getCommandProvider().getCommand(args[1]);
+		if ( command == null ) {
+			return failure("Invalid command '" + args[1] + "'");
+		}
+		String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+
+		JvmMetrics.resetHeapPeak();
+		long heapUsed  = JvmMetrics.getHeapUsed();
+		long gcCount   = JvmMetrics.getGcCount();
+		long gcTime    = JvmMetrics.getGcTime();
+		long allocated = ThreadMetrics.getAllocatedBytes();
+		long cpuTime   = ThreadMetrics.getCpuTime();
+		long wallTime  = System.nanoTime();
+		try {
+			String result = command.execute(commandArgs);
+			if ( result != null ) {
+				print(result);
+			}
+		}
+		finally {
+			wallTime = System.nanoTime() - wallTime ;
+			cpuTime = cpuTime >= 0 ? ThreadMetrics.getCpuTime() - cpuTime : -1 ;
+			allocated = allocated >= 0 ? ThreadMetrics.getAllocatedBytes() - allocated : -1 ;
+			gcCount = JvmMetrics.getGcCount() - gcCount ;
+			gcTime = JvmMetrics.getGcTime() - gcTime ;
+			long heapPeak = JvmMetrics.getHeapPeak() - heapUsed ;
+			print(String.format("real %.1f ms | cpu %s | gc %d (%d ms) | alloc %s | heap peak %+.1f MB", 
+					wallTime / MS, 
+					cpuTime >= 0 ? String.format("%.1f ms", cpuTime / MS) : "n/a",
+					gcCount, gcTime, 
+					allocated >= 0 ? String.format("%.1f MB", allocated / MB) : "n/a",
+					heapPeak / MB ) );
+		}
+		return null ;
+	}
+}
@@ -0,0 +1,220 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.CommandLineProcessor;
+import org.telosys.tools.cli.CommandLineUtil;
+import org.telosys.tools.cli.CommandProvider;
+import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.ProjectContexts;
+
+public class UseCommand extends Command {
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public UseCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "use";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Use context" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Print the project contexts, set the current context or execute a command in several contexts concurrently";
+	}
+
+	@Override
+	public String getUsage() {
+		return "use [context-name] | use context1,context2,... command [args]";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		ProjectContexts projectContexts = getEnvironment().getCommandProvider().getProjectContexts();
+		if ( args.length == 1 ) {
+			printContexts(projectContexts);
+			return null ;
+		}
+		else if ( args.length == 2 && args[1].indexOf(',') < 0 ) {
+			return useContext(projectContexts, args[1]);
+		}
+		else if ( args.length > 2 ) {
+			return executeConcurrently(projectContexts, args);
+		}
+		else {
+			return invalidUsage("command expected after the contexts");
+		}
+	}
+
+	private void printContexts(ProjectContexts projectContexts) {
+		String current = projectContexts.getCurrentName();
+		List<String> list = new ArrayList<>();
+		for ( String name : projectContexts.getNames() ) {
+			String home = projectContexts.get(name).getEnvironment().getHomeDirectory();
+			list.add( ( name.equals(current) ? "* " : "  " ) + name + " : " + ( home != null ? home : "(no home)" ) );
+		}
+		print(list.size() + " context(s) :");
+		printList(list);
+	}
+
+	private String useContext(ProjectContexts projectContexts, String contextName) {
+		if ( ! ProjectContexts.isValidName(contextName) ) {
+			return failure("Invalid context name '" + contextName + "'") ;
+		}
+		boolean exists = projectContexts.get(contextName) != null ;
+		CommandProvider commandProvider = projectContexts.setCurrent(contextName);
+		updatePrompt(commandProvider.getEnvironment());
+		return "Current context is now '" + contextName + "'" + ( exists ? "" : " (new context)" ) ;
+	}
+
+	/**
+	 * Executes the command line in each given context (one thread per context) <br>
+	 * The output of each context is printed at the end, the confirmations are refused unless launched with '-y' <br>
+	 * The 'use' command fails if the command line fails in at least one context
+	 * @param projectContexts
+	 * @param args
+	 * @return
+	 */
+	private String executeConcurrently(ProjectContexts projectContexts, String[] args) {
+		Set<String> contextNames = new LinkedHashSet<>(Arrays.asList(args[1].split(",")));
+		for ( String contextName : contextNames ) {
+			if ( projectContexts.get(contextName) == null ) {
+				return failure("Unknown context '" + contextName + "'") ;
+			}
+		}
+		final String commandLine = buildCommandLine(args);
+		if ( "use".equals(args[2]) ) {
+			return failure("Cannot execute 'use' in several contexts") ;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(contextNames.size());
+		List<Future<ContextResult>> results = new ArrayList<>();
+		List<String> failedContexts = new ArrayList<>();
+		try {
+			for ( String contextName : contextNames ) {
+				final CommandProvider commandProvider = projectContexts.get(contextName);
+				results.add(executor.submit(new Callable<ContextResult>() {
+					@Override
+					public ContextResult call() {
+						return executeInContext(commandProvider, commandLine);
+					}
+				}));
+			}
+			int i = 0 ;
+			for ( String contextName : contextNames ) {
+				print("--- Context '" + contextName + "' : " + commandLine );
+				ContextResult result = getResult(results.get(i++));
+				print(result.output);
+				if ( ! result.ok ) {
+					failedContexts.add(contextName);
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		if ( ! failedContexts.isEmpty() ) {
+			return failure("Failed in " + failedContexts.size() + " context(s) : " + failedContexts );
+		}
+		return null ;
+	}
+
+	/**
+	 * Rebuilds the command line to be executed from the arguments following the contexts <br>
+	 * (the arguments are quoted again if necessary, eg 'cd "my dir"')
+	 * @param args
+	 * @return
+	 */
+	private String buildCommandLine(String[] args) {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 2 ; i < args.length ; i++ ) {
+			if ( i > 2 ) {
+				sb.append(' ');
+			}
+			sb.append(CommandLineUtil.quote(args[i]));
+		}
+		return sb.toString();
+	}
+
+	private ContextResult executeInContext(CommandProvider commandProvider, String commandLine) {
+		Environment environment = commandProvider.getEnvironment();
+		StringWriter buffer = new StringWriter();
+		PrintWriter output = new PrintWriter(buffer);
+		environment.setOutput(output); // captured output => no confirmation without auto-confirm
+		long start = System.currentTimeMillis();
+		boolean ok ;
+		try {
+			ok = new CommandLineProcessor(output, commandProvider).processLine(commandLine);
+		}
+		finally {
+			environment.setOutput(null);
+		}
+		output.print("(" + ( System.currentTimeMillis() - start ) + " ms)");
+		output.flush();
+		return new ContextResult(buffer.toString(), ok);
+	}
+
+	private ContextResult getResult(Future<ContextResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new ContextResult("Interrupted", false) ;
+		} catch (ExecutionException e) {
+			return new ContextResult("Error : " + e.getCause(), false) ;
+		}
+	}
+
+	/**
+	 * Result of the command line in a context 
+	 */
+	private static class ContextResult {
+		private final String  output ;
+		private final boolean ok ;
+
+		protected ContextResult(String output, boolean ok) {
+			super();
+			this.output = output;
+			this.ok = ok;
+		}
+	}
+}
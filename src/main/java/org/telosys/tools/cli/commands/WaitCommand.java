@@ -0,0 +1,93 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commands;
+
+import jline.console.ConsoleReader;
+
+import org.telosys.tools.cli.BackgroundJob;
+import org.telosys.tools.cli.BackgroundJobs;
+import org.telosys.tools.cli.Command;
+import org.telosys.tools.cli.Environment;
+
+public class WaitCommand extends Command {
+
+	/**
+	 * Constructor
+	 * @param consoleReader
+	 * @param environment
+	 */
+	public WaitCommand(ConsoleReader consoleReader, Environment environment) {
+		super(consoleReader, environment);
+	}
+
+	@Override
+	public String getName() {
+		return "wait";
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Wait job" ;
+	}
+
+	@Override
+	public String getDescription() {
+		return "Wait for the end of a background job (or all the jobs) and print its output";
+	}
+
+	@Override
+	public String getUsage() {
+		return "wait [job-id]";
+	}
+
+	@Override
+	public String execute(String[] args) {
+		BackgroundJobs backgroundJobs = getEnvironment().getCommandProvider().getProjectContexts().getBackgroundJobs();
+		if ( args.length == 1 ) {
+			for ( BackgroundJob job : backgroundJobs.getJobs() ) {
+				waitJob(backgroundJobs, job);
+			}
+			return null ;
+		}
+		else if ( args.length == 2 ) {
+			BackgroundJob job = backgroundJobs.get(args[1]);
+			if ( job == null ) {
+				return failure("Unknown job '" + args[1] + "'");
+			}
+			waitJob(backgroundJobs, job);
+			return null ;
+		}
+		else {
+			return invalidUsage("too many arguments");
+		}
+	}
+
+	private void waitJob(BackgroundJobs backgroundJobs, BackgroundJob job) {
+		try {
+			job.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			printFailure("Interrupted");
+			return ;
+		}
+		backgroundJobs.remove(job);
+		print("--- " + job.toString());
+		String output = job.getOutput();
+		if ( output.length() > 0 ) {
+			print(output.endsWith("\n") ? output.substring(0, output.length() - 1) : output);
+		}
+	}
+}
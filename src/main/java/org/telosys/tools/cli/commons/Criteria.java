@@ -0,0 +1,206 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled selection criteria for names (entities, templates) <br>
+ * Each criterion can be : <br>
+ *  - a name : 'Car' (exact match, or "contains" if the criteria are built with 'containsMatch') <br>
+ *  - a glob pattern : 'Car*', 'Car?' <br>
+ *  - a regular expression between '/' : '/^Car$/' <br>
+ *  - a negation of one of the previous forms : '!Audit*' <br>
+ * A name is selected if it matches at least one positive criterion (or if there's no positive criterion)
+ * and none of the negative criteria.
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class Criteria {
+
+	/**
+	 * Name provider for the items to be selected
+	 * @param <T>
+	 */
+	public interface NameProvider<T> {
+		String getName(T item);
+	}
+
+	private static final Criteria ALL = new Criteria(false);
+
+	private final boolean       containsMatch ;
+	private final Set<String>   includedNames = new HashSet<>();
+	private final List<String>  includedParts = new LinkedList<>();
+	private final List<Pattern> includedPatterns = new LinkedList<>();
+	private final Set<String>   excludedNames = new HashSet<>();
+	private final List<String>  excludedParts = new LinkedList<>();
+	private final List<Pattern> excludedPatterns = new LinkedList<>();
+	private boolean             hasIncluded = false ;
+
+	/**
+	 * Private constructor
+	 * @param containsMatch
+	 */
+	private Criteria(boolean containsMatch) {
+		super();
+		this.containsMatch = containsMatch ;
+	}
+
+	/**
+	 * Returns criteria selecting all the names
+	 * @return
+	 */
+	public static Criteria all() {
+		return ALL ;
+	}
+
+	/**
+	 * Compiles the given criteria
+	 * @param criteria the criteria ( eg 'Car', 'Car*', '/^Car$/', '!Audit*' )
+	 * @param containsMatch if true a simple name is matched with 'contains' (else 'equals')
+	 * @return
+	 * @throws IllegalArgumentException if a regular expression is invalid
+	 */
+	public static Criteria compile(List<String> criteria, boolean containsMatch) {
+		if ( criteria == null || criteria.isEmpty() ) {
+			return ALL ;
+		}
+		Criteria c = new Criteria(containsMatch);
+		for ( String criterion : criteria ) {
+			c.add(criterion);
+		}
+		return c ;
+	}
+
+	private void add(String criterion) {
+		boolean negation = criterion.startsWith("!") ;
+		String s = negation ? criterion.substring(1) : criterion ;
+		if ( s.length() == 0 ) {
+			return ;
+		}
+		if ( ! negation ) {
+			hasIncluded = true ;
+		}
+		if ( s.length() > 1 && s.startsWith("/") && s.endsWith("/") ) {
+			// Regular expression
+			Pattern pattern ;
+			try {
+				pattern = Pattern.compile(s.substring(1, s.length() - 1));
+			} catch (PatternSyntaxException e) {
+				throw new IllegalArgumentException("Invalid regex '" + s + "' : " + e.getDescription(), e);
+			}
+			( negation ? excludedPatterns : includedPatterns ).add(pattern);
+		}
+		else if ( s.indexOf('*') >= 0 || s.indexOf('?') >= 0 ) {
+			// Glob pattern
+			Pattern pattern = Pattern.compile(globToRegex(s));
+			( negation ? excludedPatterns : includedPatterns ).add(pattern);
+		}
+		else if ( containsMatch ) {
+			( negation ? excludedParts : includedParts ).add(s);
+		}
+		else {
+			( negation ? excludedNames : includedNames ).add(s);
+		}
+	}
+
+	/**
+	 * Converts a glob pattern to a regular expression matching the whole name
+	 * @param glob
+	 * @return
+	 */
+	protected static String globToRegex(String glob) {
+		StringBuilder sb = new StringBuilder();
+		sb.append('^');
+		int start = 0 ;
+		for ( int i = 0 ; i < glob.length() ; i++ ) {
+			char c = glob.charAt(i);
+			if ( c == '*' || c == '?' ) {
+				if ( i > start ) {
+					sb.append(Pattern.quote(glob.substring(start, i)));
+				}
+				sb.append( c == '*' ? ".*" : "." );
+				start = i + 1 ;
+			}
+		}
+		if ( start < glob.length() ) {
+			sb.append(Pattern.quote(glob.substring(start)));
+		}
+		sb.append('$');
+		return sb.toString();
+	}
+
+	/**
+	 * Returns true if the criteria select all the names
+	 * @return
+	 */
+	public boolean isAll() {
+		return this == ALL ;
+	}
+
+	/**
+	 * Returns true if the given name is selected by the criteria
+	 * @param name
+	 * @return
+	 */
+	public boolean matches(String name) {
+		if ( isAll() ) {
+			return true ;
+		}
+		if ( excludedNames.contains(name) || containsOne(name, excludedParts) || findOne(name, excludedPatterns) ) {
+			return false ;
+		}
+		if ( ! hasIncluded ) {
+			return true ; // only exclusions
+		}
+		return includedNames.contains(name) || containsOne(name, includedParts) || findOne(name, includedPatterns) ;
+	}
+
+	private boolean containsOne(String name, List<String> parts) {
+		for ( String part : parts ) {
+			if ( name.contains(part) ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	private boolean findOne(String name, List<Pattern> patterns) {
+		for ( Pattern pattern : patterns ) {
+			if ( pattern.matcher(name).find() ) {
+				return true ;
+			}
+		}
+		return false ;
+	}
+
+	/**
+	 * Selects the items matching the criteria <br>
+	 * (the items are sorted first : use a 'SortedNames' to select many times in the same items)
+	 * @param items
+	 * @param nameProvider
+	 * @return a new list containing the selected items, sorted by name
+	 */
+	public <T> List<T> select(List<T> items, NameProvider<T> nameProvider) {
+		return new SortedNames<>(items, nameProvider).select(this);
+	}
+}
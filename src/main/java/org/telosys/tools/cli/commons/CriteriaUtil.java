@@ -15,13 +15,28 @@
  */
 package org.telosys.tools.cli.commons;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
-import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.cli.CancelCommandException;
 
 public class CriteriaUtil {
 
+	private static final int COMPILED_CRITERIA_MAX = 64 ;
+
+	/**
+	 * Compiled criteria reused across commands : 'E' or 'T' + argument --> criteria (LRU)
+	 */
+	private static final Map<String, Criteria> COMPILED_CRITERIA = new LinkedHashMap<String, Criteria>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Criteria> eldest) {
+			return size() > COMPILED_CRITERIA_MAX ;
+		}
+	};
+
 	/**
 	 * No constructor ! 
 	 */
@@ -29,37 +44,111 @@ public class CriteriaUtil {
 	}
 	
 	/**
-	 * Builds a list of criteria from the given argument <br>
+	 * Builds the entities criteria from the given argument <br>
+	 * A simple name selects only the entity with this name ( eg 'Car' doesn't select 'CarOwner' ) <br>
+	 * 
+	 * @param arg argument containing the criteria ( eg 'Car,Driver', 'Car*', '/^Car$/', '!Audit*' )
+	 * @return the compiled criteria (selecting all the entities if no criteria)
+	 */
+	public static final Criteria buildEntityCriteriaFromArg( String arg ) {
+		return buildCriteriaFromArg(arg, false);
+	}	
+	
+	/**
+	 * Builds the templates criteria from the given argument <br>
+	 * A simple name selects all the templates containing this name ( eg '_java' ) <br>
+	 * 
+	 * @param arg argument containing the criteria ( eg 'pattern1,pattern2', '*_java*', '!*test*' )
+	 * @return the compiled criteria (selecting all the templates if no criteria)
+	 */
+	public static final Criteria buildTemplateCriteriaFromArg( String arg ) {
+		return buildCriteriaFromArg(arg, true);
+	}	
+	
+	/**
+	 * Returns the compiled criteria for the given argument (compiled once and reused)
+	 * @param arg 
+	 * @param containsMatch
+	 * @return
+	 */
+	private static Criteria buildCriteriaFromArg( String arg, boolean containsMatch ) {
+		if ( arg == null ) {
+			return Criteria.all();
+		}
+		String key = ( containsMatch ? "T" : "E" ) + arg ;
+		synchronized (COMPILED_CRITERIA) {
+			Criteria criteria = COMPILED_CRITERIA.get(key);
+			if ( criteria == null ) {
+				criteria = buildCriteria(splitArg(arg), containsMatch); // not cached if invalid
+				COMPILED_CRITERIA.put(key, criteria);
+			}
+			return criteria ;
+		}
+	}
+	
+	/**
+	 * Compiles the given criteria <br>
+	 * An invalid criterion (eg '/[a/') cancels the current command 
+	 * 
+	 * @param criteria list of criteria or null if no criteria
+	 * @param containsMatch if true a simple name is matched with 'contains' (else 'equals')
+	 * @return the compiled criteria
+	 */
+	public static final Criteria buildCriteria( List<String> criteria, boolean containsMatch ) {
+		try {
+			return Criteria.compile(criteria, containsMatch);
+		} catch (IllegalArgumentException e) {
+			throw new CancelCommandException(e.getMessage());
+		}
+	}	
+	
+	/**
+	 * Splits the given argument into a list of criteria <br>
 	 * Returns a list of criteria or null if no criteria <br>
+	 * The ',' located in a regular expression ( '/.../' ) are not considered as separators
 	 * 
 	 * @param arg argument containing the criteria ( eg 'pattern1,pattern2,pattern3' )
 	 * @return
 	 */
-	public static final List<String> buildCriteriaFromArg( String arg ) {
+	protected static final List<String> splitArg( String arg ) {
 		if ( arg == null ) {
 			return null ; // No criteria
 		}
-		else if ( "*".equals(arg) || "".equals(arg) ) {
+		else if ( "*".equals(arg.trim()) || "".equals(arg.trim()) ) {
 			return null ; 
 		}
 		else {
 			List<String> list = new LinkedList<>();
-			if ( arg.contains(",") ) {
-				// Many template patterns (eg 'template1,template2,template3')				
-				String[] array = StrUtil.split(arg, ',' );
-				for ( String s : array ) {
-					String templateName = s.trim();
-					if ( templateName.length() > 0 ) {
-						list.add(templateName);
+			StringBuilder sb = new StringBuilder();
+			boolean inRegex = false ;
+			for ( int i = 0 ; i < arg.length() ; i++ ) {
+				char c = arg.charAt(i);
+				if ( c == ',' && ! inRegex ) {
+					addCriterion(list, sb.toString());
+					sb.setLength(0);
+				}
+				else {
+					if ( c == '/' ) {
+						String current = sb.toString().trim();
+						if ( current.length() == 0 || "!".equals(current) ) {
+							inRegex = true ; // beginning of regex
+						}
+						else if ( inRegex ) {
+							inRegex = false ; // end of regex
+						}
 					}
+					sb.append(c);
 				}
 			}
-			else {
-				// Only 1 template pattern 
-				list.add(arg.trim());
-			}
-			return list;
+			addCriterion(list, sb.toString());
+			return list.isEmpty() ? null : list ;
 		}
-	}	
+	}
 	
+	private static void addCriterion( List<String> list, String s ) {
+		String criterion = s.trim();
+		if ( criterion.length() > 0 ) {
+			list.add(criterion);
+		}
+	}
 }
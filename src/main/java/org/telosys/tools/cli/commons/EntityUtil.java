@@ -17,15 +17,17 @@ package org.telosys.tools.cli.commons;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.telosys.tools.cli.Color;
 import org.telosys.tools.cli.Environment;
+import org.telosys.tools.cli.model.EntitySummary;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
 
 public class EntityUtil {
 
@@ -35,16 +37,34 @@ public class EntityUtil {
 	private EntityUtil() {
 	}
 		
+	private static final Criteria.NameProvider<Entity> ENTITY_NAME = new Criteria.NameProvider<Entity>() {
+		@Override
+		public String getName(Entity entity) {
+			return entity.getClassName();
+		}
+	};
+
+	private static final Criteria.NameProvider<EntitySummary> SUMMARY_NAME = new Criteria.NameProvider<EntitySummary>() {
+		@Override
+		public String getName(EntitySummary entity) {
+			return entity.getClassName();
+		}
+	};
+
 	/**
-	 * Filters the given entities according with the given criteria
-	 * @param allEntities
+	 * Entities of the last model used, sorted by class name
+	 */
+	private static final SortedNames.Cache<Model, Entity> SORTED_ENTITIES = new SortedNames.Cache<>(ENTITY_NAME);
+
+	/**
+	 * Filters the entities of the given model according with the given criteria <br>
+	 * (the entities are sorted once per model)
+	 * @param model
 	 * @param criteria
-	 * @return
+	 * @return the selected entities sorted by class name
 	 */
-	public static List<Entity> filter( List<Entity> allEntities, List<String> criteria ) {
-		List<Entity> list = select(allEntities, criteria);
-		sort(list);
-		return list;
+	public static List<Entity> filter( Model model, Criteria criteria ) {
+		return SORTED_ENTITIES.get(model, model.getEntities()).select(criteria);
 	}
 	
 	public static List<String> toEntityNames( List<Entity> entities ) {
@@ -56,36 +76,7 @@ public class EntityUtil {
 	}
 	
 	/**
-	 * Selects the entities matching the given criteria
-	 * @param allEntities
-	 * @param criteria
-	 * @return
-	 */
-	public static List<Entity> select( List<Entity> allEntities, List<String> criteria ) {
-		if ( criteria != null ) {
-			Map<String,Entity> map = new Hashtable<>();
-			for ( String criterion : criteria ) {
-				for ( Entity entity : allEntities ) {
-					String entityClassName = entity.getClassName() ;
-					if ( entityClassName.contains(criterion) ) {
-						map.put(entityClassName, entity); 
-					}
-				}				
-			}
-			// Convert map values to list
-			List<Entity> list = new LinkedList<>();
-			for ( Entity entity : map.values() ) {
-				list.add(entity);
-			}
-			return list;	
-		}
-		else {
-			return allEntities ; // No critera => ALL
-		}
-	}
-
-	/**
-	 * Sorts the given list of TargetDefinition by template name
+	 * Sorts the given list of entities by class name
 	 * @param list
 	 */
 	public static void sort( List<Entity> list) {
@@ -129,16 +120,85 @@ public class EntityUtil {
 	}
 
 	private static String buildLine(Entity e) {
+		return buildLine(e.getClassName(), e.getWarnings() != null && e.getWarnings().size() > 0, 
+				e.getDatabaseTable() );
+	}
+
+	private static String buildLine(String className, boolean hasWarning, String databaseTable) {
 		
 		String warning = "" ;
-		if ( e.getWarnings() != null && e.getWarnings().size() > 0 ) {
+		if ( hasWarning ) {
 			warning = Color.colorize(" (!)", Color.RED_BRIGHT ) ;
 		}
 		String table = "" ;
-		if ( ! StrUtil.nullOrVoid( e.getDatabaseTable() ) ) {
-			table = " (table '" + e.getDatabaseTable() + "')" ;
+		if ( ! StrUtil.nullOrVoid( databaseTable ) ) {
+			table = " (table '" + databaseTable + "')" ;
+		}
+		return " . " + className + warning + table  ;
+	}
+
+	//--------------------------------------------------------------------------------------------
+	// RECORDS (STRUCTURED OUTPUT)
+	//--------------------------------------------------------------------------------------------
+	/**
+	 * Returns the record describing the given entity ( for '--json' or '--ndjson' )
+	 * @param entity
+	 * @return
+	 */
+	public static Map<String, Object> toRecord(Entity entity) {
+		return toRecord(entity.getClassName(), entity.getWarnings() != null && entity.getWarnings().size() > 0, 
+				entity.getDatabaseTable() );
+	}
+
+	/**
+	 * Returns the record describing the given entity summary ( for '--json' or '--ndjson' )
+	 * @param entity
+	 * @return
+	 */
+	public static Map<String, Object> toRecord(EntitySummary entity) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("entity", entity.getClassName());
+		record.put("table", StrUtil.nullOrVoid(entity.getDatabaseTable()) ? null : entity.getDatabaseTable());
+		record.put("indexCheck", entity.getIndexCheck()); // not a model warning ( see '--full' )
+		return record ;
+	}
+
+	private static Map<String, Object> toRecord(String className, boolean hasWarning, String databaseTable) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("entity", className);
+		record.put("table", StrUtil.nullOrVoid(databaseTable) ? null : databaseTable);
+		record.put("warning", hasWarning);
+		return record ;
+	}
+
+	//--------------------------------------------------------------------------------------------
+	// ENTITIES SUMMARIES (FROM MODEL INDEX)
+	//--------------------------------------------------------------------------------------------
+	/**
+	 * Filters the given entities summaries according with the given criteria
+	 * @param allEntities
+	 * @param criteria
+	 * @return the selected entities sorted by class name
+	 */
+	public static List<EntitySummary> filterSummaries( List<EntitySummary> allEntities, Criteria criteria ) {
+		return criteria.select(allEntities, SUMMARY_NAME);
+	}
+
+	public static String buildSummariesListAsString( List<EntitySummary> entities ) {
+		if ( entities != null && entities.size() > 0 ) {
+			StringBuilder sb = new StringBuilder();
+			for ( EntitySummary entity : entities ) {
+				sb.append( buildLine(entity.getClassName(), false, entity.getDatabaseTable()) );
+				if ( entity.getIndexCheck() != null ) {
+					sb.append( " [index check : " + entity.getIndexCheck() + "]" );
+				}
+				sb.append(Environment.LINE_SEPARATOR);
+			}
+			return sb.toString();
+		}
+		else {
+			return "No entity";
 		}
-		return " . " + e.getClassName() + warning + table  ;
 	}
 
 }
@@ -0,0 +1,89 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.io.File;
+
+/**
+ * File state snapshot (path, last modification time and size) <br>
+ * Used to check if a cached information built from a file is still valid
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public final class FileStamp {
+
+	private final String path ;
+	private final long   lastModified ;
+	private final long   length ;
+
+	/**
+	 * Constructor
+	 * @param file
+	 */
+	public FileStamp(File file) {
+		super();
+		this.path = file.getAbsolutePath();
+		this.lastModified = file.lastModified(); // 0 if the file doesn't exist
+		this.length = file.length(); // 0 if the file doesn't exist
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns true if the file still has the same state
+	 * @param file
+	 * @return
+	 */
+	public boolean isSameAs(File file) {
+		return this.equals(new FileStamp(file));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( obj instanceof FileStamp ) {
+			FileStamp other = (FileStamp) obj;
+			return lastModified == other.lastModified && length == other.length && path.equals(other.path);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = path.hashCode();
+		result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+		result = 31 * result + (int) (length ^ (length >>> 32));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return path + " (" + lastModified + ", " + length + ")";
+	}
+}
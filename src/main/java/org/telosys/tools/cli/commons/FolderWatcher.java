@@ -0,0 +1,145 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watcher notifying the creation and the deletion of the entries of a folder (not recursive) <br>
+ * The notifications are consumed on demand (no thread) <br>
+ * If the folder cannot be watched (folder not yet created, WatchService not available for 
+ * the file system) the changes are detected with the folder last modification date, 
+ * and the registration is retried once the folder exists
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class FolderWatcher {
+
+	private static final long NO_FOLDER = -1L ;
+
+	private final File   folder ;
+	private WatchService watchService = null ;
+	private WatchKey     watchKey = null ;
+	private boolean      watchServiceAvailable = true ;
+	private boolean      closed = false ;
+	// folder last modification date (used when the folder is not watched)
+	private long         folderStamp ;
+
+	/**
+	 * Constructor
+	 * @param folder
+	 */
+	public FolderWatcher(File folder) {
+		super();
+		this.folder = folder ;
+		this.folderStamp = getFolderStamp();
+		register();
+	}
+
+	private long getFolderStamp() {
+		return folder.isDirectory() ? folder.lastModified() : NO_FOLDER ;
+	}
+
+	private void register() {
+		if ( watchServiceAvailable && folder.isDirectory() ) {
+			try {
+				watchService = FileSystems.getDefault().newWatchService();
+				watchKey = folder.toPath().register(watchService, 
+						StandardWatchEventKinds.ENTRY_CREATE, 
+						StandardWatchEventKinds.ENTRY_DELETE);
+			} catch (UnsupportedOperationException e) {
+				// No notification for this file system
+				watchServiceAvailable = false ;
+				unregister();
+			} catch (IOException e) {
+				// Not watched for now (retried at the next call)
+				unregister();
+			}
+		}
+	}
+
+	private void unregister() {
+		if ( watchService != null ) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				// ignored
+			}
+		}
+		watchService = null ;
+		watchKey = null ;
+	}
+
+	/**
+	 * Returns true if the folder is watched 
+	 * @return
+	 */
+	public synchronized boolean isWatched() {
+		return watchKey != null ;
+	}
+
+	/**
+	 * Consumes the pending notifications if any
+	 * @return true if at least one entry has been created or deleted since the last call
+	 *  (or if the folder has been created or is no longer accessible)
+	 */
+	public synchronized boolean hasChanged() {
+		if ( closed ) {
+			return false ;
+		}
+		if ( watchKey != null ) {
+			boolean changed = false ;
+			WatchKey key = watchService.poll();
+			while ( key != null ) {
+				if ( ! key.pollEvents().isEmpty() ) {
+					changed = true ;
+				}
+				if ( ! key.reset() ) {
+					// folder no longer accessible => folder stamp until it's created again
+					unregister();
+					folderStamp = getFolderStamp();
+					return true ;
+				}
+				key = watchService.poll();
+			}
+			return changed ;
+		}
+		else {
+			// Not watched : an entry creation or deletion changes the folder last modification date
+			long stamp = getFolderStamp();
+			boolean changed = stamp != folderStamp ;
+			folderStamp = stamp ;
+			if ( changed ) {
+				register(); // folder created since the previous call ?
+			}
+			return changed ;
+		}
+	}
+
+	/**
+	 * Stops watching the folder
+	 */
+	public synchronized void close() {
+		closed = true ;
+		unregister();
+	}
+}
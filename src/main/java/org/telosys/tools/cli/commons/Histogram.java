@@ -0,0 +1,125 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of positive values with a bounded relative error ( "HDR" style ) <br>
+ * The values are recorded in buckets : exact buckets for the small values, 
+ * then 32 buckets for each power of 2 (about 3% of precision) <br>
+ * The memory used depends on the highest value recorded (no more than 2000 counters)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS  = 5 ;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS ; // 32
+	private static final int EXACT_COUNT      = SUB_BUCKET_COUNT * 2 ; // values 0 to 63 
+
+	private long[] counts = new long[EXACT_COUNT] ;
+	private long   totalCount = 0 ;
+	private long   total = 0 ;
+	private long   min = Long.MAX_VALUE ;
+	private long   max = 0 ;
+
+	/**
+	 * Returns the bucket index for the given value 
+	 * @param value
+	 * @return
+	 */
+	protected static int bucketIndex(long value) {
+		if ( value < EXACT_COUNT ) {
+			return (int) value ;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS ;
+		int subBucket = (int) ( value >>> shift ) - SUB_BUCKET_COUNT ;
+		return EXACT_COUNT + ( shift - 1 ) * SUB_BUCKET_COUNT + subBucket ;
+	}
+
+	/**
+	 * Returns the highest value of the given bucket
+	 * @param index
+	 * @return
+	 */
+	protected static long bucketHighestValue(int index) {
+		if ( index < EXACT_COUNT ) {
+			return index ;
+		}
+		int k = index - EXACT_COUNT ;
+		int shift = k / SUB_BUCKET_COUNT + 1 ;
+		long lowest = (long) ( SUB_BUCKET_COUNT + k % SUB_BUCKET_COUNT ) << shift ;
+		return lowest + ( 1L << shift ) - 1 ;
+	}
+
+	/**
+	 * Records the given value (a negative value is ignored)
+	 * @param value
+	 */
+	public synchronized void record(long value) {
+		if ( value < 0 ) {
+			return ;
+		}
+		int index = bucketIndex(value);
+		if ( index >= counts.length ) {
+			counts = Arrays.copyOf(counts, index + SUB_BUCKET_COUNT);
+		}
+		counts[index]++ ;
+		totalCount++ ;
+		total += value ;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public synchronized long getCount() {
+		return totalCount ;
+	}
+
+	public synchronized long getMin() {
+		return totalCount > 0 ? min : 0 ;
+	}
+
+	public synchronized long getMax() {
+		return max ;
+	}
+
+	public synchronized long getMean() {
+		return totalCount > 0 ? total / totalCount : 0 ;
+	}
+
+	/**
+	 * Returns the value at the given percentile ( eg 50 for the median )
+	 * @param percentile between 0 and 100
+	 * @return the highest value equivalent to the value at the percentile (0 if no value)
+	 */
+	public synchronized long getValueAtPercentile(double percentile) {
+		if ( totalCount == 0 ) {
+			return 0 ;
+		}
+		long rank = (long) Math.ceil( Math.min(percentile, 100.0) / 100.0 * totalCount ) ;
+		rank = Math.max(rank, 1);
+		long cumulated = 0 ;
+		for ( int i = 0 ; i < counts.length ; i++ ) {
+			cumulated += counts[i] ;
+			if ( cumulated >= rank ) {
+				return Math.min(bucketHighestValue(i), max);
+			}
+		}
+		return max ;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Minimal JSON serialization for the records printed by the commands <br>
+ * Supported values : null, String, Number, Boolean, Map (object) and Collection (array) <br>
+ * Any other value is serialized as a string ( 'toString()' )
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class JsonUtil {
+
+	/**
+	 * No constructor ! 
+	 */
+	private JsonUtil() {
+	}
+
+	/**
+	 * Returns the given value in JSON (on a single line)
+	 * @param value
+	 * @return
+	 */
+	public static String toJson(Object value) {
+		StringBuilder sb = new StringBuilder();
+		append(sb, value);
+		return sb.toString();
+	}
+
+	private static void append(StringBuilder sb, Object value) {
+		if ( value == null ) {
+			sb.append("null");
+		}
+		else if ( value instanceof Boolean || value instanceof Number ) {
+			sb.append(value.toString());
+		}
+		else if ( value instanceof Map ) {
+			sb.append('{');
+			boolean first = true ;
+			for ( Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet() ) {
+				if ( ! first ) {
+					sb.append(',');
+				}
+				first = false ;
+				appendString(sb, String.valueOf(entry.getKey()));
+				sb.append(':');
+				append(sb, entry.getValue());
+			}
+			sb.append('}');
+		}
+		else if ( value instanceof Collection ) {
+			sb.append('[');
+			boolean first = true ;
+			for ( Object element : (Collection<?>) value ) {
+				if ( ! first ) {
+					sb.append(',');
+				}
+				first = false ;
+				append(sb, element);
+			}
+			sb.append(']');
+		}
+		else {
+			appendString(sb, value.toString());
+		}
+	}
+
+	private static void appendString(StringBuilder sb, String s) {
+		sb.append('"');
+		for ( int i = 0 ; i < s.length() ; i++ ) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"'  : sb.append("\\\""); break ;
+			case '\\' : sb.append("\\\\"); break ;
+			case '\n' : sb.append("\\n"); break ;
+			case '\r' : sb.append("\\r"); break ;
+			case '\t' : sb.append("\\t"); break ;
+			default :
+				if ( c < ' ' ) {
+					sb.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+/**
+ * JVM wide metrics : garbage collections and heap usage
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class JvmMetrics {
+
+	/**
+	 * Private constructor
+	 */
+	private JvmMetrics() {
+	}
+
+	/**
+	 * Returns the total number of garbage collections (all collectors)
+	 * @return
+	 */
+	public static long getGcCount() {
+		long count = 0 ;
+		for ( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans() ) {
+			count += Math.max(gc.getCollectionCount(), 0);
+		}
+		return count ;
+	}
+
+	/**
+	 * Returns the accumulated garbage collection time in milliseconds (all collectors)
+	 * @return
+	 */
+	public static long getGcTime() {
+		long time = 0 ;
+		for ( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans() ) {
+			time += Math.max(gc.getCollectionTime(), 0);
+		}
+		return time ;
+	}
+
+	/**
+	 * Returns the heap memory currently used (in bytes)
+	 * @return
+	 */
+	public static long getHeapUsed() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Resets the peak usage of all the heap memory pools 
+	 */
+	public static void resetHeapPeak() {
+		for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+			if ( pool.getType() == MemoryType.HEAP && pool.isValid() ) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Returns the sum of the peak usages of the heap memory pools since the last reset (in bytes) 
+	 * @return
+	 */
+	public static long getHeapPeak() {
+		long peak = 0 ;
+		for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+			if ( pool.getType() == MemoryType.HEAP && pool.isValid() ) {
+				MemoryUsage usage = pool.getPeakUsage();
+				if ( usage != null ) {
+					peak += usage.getUsed() ;
+				}
+			}
+		}
+		return peak ;
+	}
+}
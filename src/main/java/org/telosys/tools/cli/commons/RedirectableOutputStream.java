@@ -0,0 +1,63 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream writing in a target stream that can be changed at any time <br>
+ * The bytes are discarded if there's no target
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class RedirectableOutputStream extends OutputStream {
+
+	private volatile OutputStream target = null ;
+
+	/**
+	 * Sets the target stream 
+	 * @param target the new target (or null to discard the bytes)
+	 */
+	public void redirect(OutputStream target) {
+		this.target = target ;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		OutputStream t = target ;
+		if ( t != null ) {
+			t.write(b);
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		OutputStream t = target ;
+		if ( t != null ) {
+			t.write(b, off, len);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		OutputStream t = target ;
+		if ( t != null ) {
+			t.flush();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Items sorted once by name, then filtered with compiled criteria as often as necessary <br>
+ * (a selection is a single pass over the pre-sorted names, without any sort)
+ *
+ * @param <T> the item type
+ * 
+ * @author Laurent GUERIN
+ *
+ */
+public class SortedNames<T> {
+
+	private final String[] names ;
+	private final List<T>  items ;
+
+	/**
+	 * Constructor : sorts the given items by name
+	 * @param items
+	 * @param nameProvider
+	 */
+	public SortedNames(Collection<T> items, Criteria.NameProvider<T> nameProvider) {
+		super();
+		int n = items.size();
+		final String[] unsortedNames = new String[n];
+		Integer[] order = new Integer[n];
+		List<T> source = new ArrayList<>(items);
+		for ( int i = 0 ; i < n ; i++ ) {
+			unsortedNames[i] = nameProvider.getName(source.get(i));
+			order[i] = i ;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return unsortedNames[i1].compareTo(unsortedNames[i2]);
+			}
+		});
+		this.names = new String[n];
+		this.items = new ArrayList<>(n);
+		for ( int i = 0 ; i < n ; i++ ) {
+			this.names[i] = unsortedNames[order[i]];
+			this.items.add(source.get(order[i]));
+		}
+	}
+
+	/**
+	 * Returns the items matching the given criteria
+	 * @param criteria
+	 * @return a new list containing the selected items, sorted by name
+	 */
+	public List<T> select(Criteria criteria) {
+		List<T> list = new ArrayList<>();
+		for ( int i = 0 ; i < names.length ; i++ ) {
+			if ( criteria.matches(names[i]) ) {
+				list.add(items.get(i));
+			}
+		}
+		return list ;
+	}
+
+	public int size() {
+		return names.length ;
+	}
+
+	/**
+	 * Keeps the sorted names of the last items set used (eg the current model or the current bundle) <br>
+	 * The owner (model, targets definitions) is compared by identity : a reloaded owner is sorted again <br>
+	 * A single owner is kept in order to not retain an obsolete model
+	 * @param <K> the owner type
+	 * @param <T> the item type
+	 */
+	public static class Cache<K, T> {
+
+		private final Criteria.NameProvider<T> nameProvider ;
+		private K              owner  = null ;
+		private SortedNames<T> sorted = null ;
+
+		/**
+		 * Constructor
+		 * @param nameProvider
+		 */
+		public Cache(Criteria.NameProvider<T> nameProvider) {
+			super();
+			this.nameProvider = nameProvider ;
+		}
+
+		/**
+		 * Returns the sorted names for the given owner (sorted only if the owner is not the last one)
+		 * @param owner
+		 * @param items the items of the owner
+		 * @return
+		 */
+		public synchronized SortedNames<T> get(K owner, Collection<T> items) {
+			if ( this.owner != owner || sorted == null ) {
+				this.sorted = new SortedNames<>(items, nameProvider);
+				this.owner = owner ;
+			}
+			return sorted ;
+		}
+	}
+}
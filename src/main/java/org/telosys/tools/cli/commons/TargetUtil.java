@@ -17,13 +17,14 @@ package org.telosys.tools.cli.commons;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.telosys.tools.cli.Environment;
 import org.telosys.tools.commons.bundles.TargetDefinition;
+import org.telosys.tools.commons.bundles.TargetsDefinitions;
 
 public class TargetUtil {
 
@@ -33,42 +34,31 @@ public class TargetUtil {
 	private TargetUtil() {
 	}
 		
-	public static List<TargetDefinition> filter( List<TargetDefinition> allTemplatesDefinitions, List<String> criteria ) {
-		List<TargetDefinition> list = select(allTemplatesDefinitions, criteria);
-		sort(list);
-		return list;
-	}
-	
+	private static final Criteria.NameProvider<TargetDefinition> TEMPLATE_NAME = new Criteria.NameProvider<TargetDefinition>() {
+		@Override
+		public String getName(TargetDefinition td) {
+			return td.getTemplate();
+		}
+	};
+
+	/**
+	 * Templates of the last bundle used, sorted by template name
+	 */
+	private static final SortedNames.Cache<TargetsDefinitions, TargetDefinition> SORTED_TEMPLATES = 
+			new SortedNames.Cache<>(TEMPLATE_NAME);
+
 	/**
-	 * Selects the TargetDefinitions matching the given criteria
-	 * @param allTemplatesDefinitions
+	 * Filters the templates of the given TargetsDefinitions according with the given criteria 
+	 * (applied to the template name) <br>
+	 * (the templates are sorted once per TargetsDefinitions)
+	 * @param targetsDefinitions
 	 * @param criteria
-	 * @return
+	 * @return the selected TargetDefinitions sorted by template name
 	 */
-	public static List<TargetDefinition> select( List<TargetDefinition> allTemplatesDefinitions, List<String> criteria ) {
-		if ( criteria != null ) {
-			Map<String,TargetDefinition> map = new HashMap<>();
-			for ( String criterion : criteria ) {
-				for ( TargetDefinition td : allTemplatesDefinitions ) {
-					String template = td.getTemplate() ;
-					if ( template.contains(criterion) ) {
-						// Use map for uniqueness 
-						map.put(td.getId(), td); // eg 'ID-String' --> TargetDefinition
-					}
-				}				
-			}
-			// Convert map values to list
-			List<TargetDefinition> list = new LinkedList<>();
-			for ( TargetDefinition td : map.values() ) {
-				list.add(td);
-			}
-			return list;	
-		}
-		else {
-			return allTemplatesDefinitions ; // No critera => ALL
-		}
+	public static List<TargetDefinition> filter( TargetsDefinitions targetsDefinitions, Criteria criteria ) {
+		return SORTED_TEMPLATES.get(targetsDefinitions, targetsDefinitions.getTemplatesTargets()).select(criteria);
 	}
-
+	
 	/**
 	 * Sorts the given list of TargetDefinition by template name
 	 * @param list
@@ -114,6 +104,21 @@ public class TargetUtil {
 		return " . [" + getTargetType(td) + "] " + td.getTemplate() + " -> " + td.getFile() ;
 	}
 
+	/**
+	 * Returns the record describing the given target ( for '--json' or '--ndjson' )
+	 * @param td
+	 * @return
+	 */
+	public static Map<String, Object> toRecord(TargetDefinition td) {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("template", td.getTemplate());
+		record.put("type", getTargetType(td));
+		record.put("name", td.getName());
+		record.put("folder", td.getFolder());
+		record.put("file", td.getFile());
+		return record ;
+	}
+
 	public static String getTargetType(TargetDefinition td) {
 		if ( td.isOnce() ) {
 			return "1" ;
@@ -0,0 +1,92 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Resources consumed by the current thread : CPU time and allocated bytes <br>
+ * The allocated bytes are only available with the HotSpot extension of the ThreadMXBean 
+ * ( '-1' is returned if not supported )
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ThreadMetrics {
+
+	private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+	private static final boolean CPU_TIME_SUPPORTED = initCpuTime();
+
+	private static final boolean ALLOCATED_BYTES_SUPPORTED = initAllocatedBytes();
+
+	/**
+	 * Private constructor
+	 */
+	private ThreadMetrics() {
+	}
+
+	private static boolean initCpuTime() {
+		try {
+			if ( THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ) {
+				if ( ! THREAD_MX_BEAN.isThreadCpuTimeEnabled() ) {
+					THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+				}
+				return true ;
+			}
+		} catch (UnsupportedOperationException | SecurityException e) {
+			// not supported
+		}
+		return false ;
+	}
+
+	private static boolean initAllocatedBytes() {
+		try {
+			if ( THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean ) {
+				com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN ;
+				if ( bean.isThreadAllocatedMemorySupported() ) {
+					if ( ! bean.isThreadAllocatedMemoryEnabled() ) {
+						bean.setThreadAllocatedMemoryEnabled(true);
+					}
+					return true ;
+				}
+			}
+		} catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+			// not a HotSpot JVM 
+		}
+		return false ;
+	}
+
+	/**
+	 * Returns the CPU time of the current thread in nanoseconds
+	 * @return the CPU time or -1 if not supported
+	 */
+	public static long getCpuTime() {
+		return CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1 ;
+	}
+
+	/**
+	 * Returns the total number of bytes allocated by the current thread 
+	 * @return the number of bytes or -1 if not supported
+	 */
+	public static long getAllocatedBytes() {
+		if ( ALLOCATED_BYTES_SUPPORTED ) {
+			return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1 ;
+	}
+}
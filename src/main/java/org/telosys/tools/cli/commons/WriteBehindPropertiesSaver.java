@@ -0,0 +1,207 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind saver for properties files <br>
+ * The successive saves of the same file are coalesced : only the last content is written, 
+ * after a short delay, by a background thread <br>
+ * Each file is written atomically ( temporary file renamed, with the permissions of the original file ) 
+ * so that a reader never gets a partial file <br>
+ * The pending saves are written by 'flush', by 'close' and by a shutdown hook (removed by 'close') <br>
+ * The write errors are kept until they are taken by the caller ( see 'takeErrors' ) <br>
+ * A single instance is expected for the whole session (one thread per instance)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class WriteBehindPropertiesSaver {
+
+	private final long delay ;
+
+	private final ScheduledExecutorService executor ;
+
+	// Pending saves ( file --> last content )
+	private final Map<File, Properties> pending = new LinkedHashMap<>();
+
+	private boolean scheduled = false ;
+
+	// Errors not yet reported to the caller
+	private final List<String> errors = new LinkedList<>();
+
+	// Serializes the writes ( the last content is always written last )
+	private final Object writeLock = new Object();
+
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	private final Thread shutdownHook = new Thread(flushTask, "properties-saver-shutdown");
+
+	/**
+	 * Constructor
+	 * @param delay the delay before writing (milliseconds)
+	 */
+	public WriteBehindPropertiesSaver(long delay) {
+		super();
+		this.delay = delay ;
+		this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "properties-saver");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Writes the pending saves, then stops the background thread and removes the shutdown hook <br>
+	 * (the saves requested after 'close' are written immediately)
+	 */
+	public void close() {
+		flush();
+		executor.shutdown();
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// shutdown in progress : the hook is running or will run 
+		}
+	}
+
+	/**
+	 * Saves the given properties (asynchronously)
+	 * @param file
+	 * @param properties
+	 */
+	public void save(File file, Properties properties) {
+		boolean closed ;
+		synchronized (this) {
+			pending.put(file, properties);
+			closed = executor.isShutdown() ;
+			if ( ! scheduled && ! closed ) {
+				scheduled = true ;
+				executor.schedule(flushTask, delay, TimeUnit.MILLISECONDS);
+			}
+		}
+		if ( closed ) {
+			flush();
+		}
+	}
+
+	/**
+	 * Returns (and forgets) the write errors since the previous call
+	 * @return the errors messages (void if no error)
+	 */
+	public synchronized List<String> takeErrors() {
+		List<String> list = new ArrayList<>(errors);
+		errors.clear();
+		return list ;
+	}
+
+	/**
+	 * Writes all the pending saves now 
+	 */
+	public void flush() {
+		synchronized (writeLock) {
+			Map<File, Properties> toWrite ;
+			synchronized (this) {
+				toWrite = new LinkedHashMap<>(pending);
+				pending.clear();
+				scheduled = false ;
+			}
+			for ( Map.Entry<File, Properties> entry : toWrite.entrySet() ) {
+				try {
+					writeAtomically(entry.getKey(), entry.getValue());
+				} catch (IOException e) {
+					// Cannot save : the previous file is unchanged
+					synchronized (this) {
+						errors.add("Cannot save '" + entry.getKey() + "' (" + e.getClass().getSimpleName() + " : " + e.getMessage() + ")");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the properties in a temporary file and renames it
+	 * @param file
+	 * @param properties
+	 * @throws IOException
+	 */
+	protected static void writeAtomically(File file, Properties properties) throws IOException {
+		Path target = file.toPath();
+		Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp");
+		try {
+			try ( OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp)) ) {
+				properties.store(out, null);
+			}
+			copyPermissions(target, temp);
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(temp); // if not moved
+		}
+	}
+
+	/**
+	 * Sets the permissions of the target file to the temporary file (created with owner permissions only) <br>
+	 * A new file gets the usual default permissions ( 'rw-r--r--' ) 
+	 * @param target
+	 * @param temp
+	 * @throws IOException
+	 */
+	private static void copyPermissions(Path target, Path temp) throws IOException {
+		try {
+			Set<PosixFilePermission> permissions = Files.exists(target) 
+					? Files.getPosixFilePermissions(target) 
+					: PosixFilePermissions.fromString("rw-r--r--") ;
+			Files.setPosixFilePermissions(temp, permissions);
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system (eg Windows) : the permissions are inherited from the folder
+		}
+	}
+}
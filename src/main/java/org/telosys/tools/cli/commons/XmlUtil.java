@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.commons;
+
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * XML utilities 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class XmlUtil {
+
+	/**
+	 * No constructor ! 
+	 */
+	private XmlUtil() {
+	}
+
+	/**
+	 * Returns a new StAX input factory with the DTD and the external entities disabled (no XXE)
+	 * @return
+	 */
+	public static XMLInputFactory newSecureInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory ;
+	}
+}
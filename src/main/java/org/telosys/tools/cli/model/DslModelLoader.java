@@ -0,0 +1,320 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.telosys.tools.api.TelosysModelException;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.dsl.DslModelUtil;
+import org.telosys.tools.dsl.EntityParserException;
+import org.telosys.tools.dsl.converter.Converter;
+import org.telosys.tools.dsl.parser.EntityParser;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainEntityField;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * DSL model loader parsing the '.entity' files concurrently <br>
+ *
+ * Step 1 : all the entities are declared (by file name) in the domain model <br>
+ * Step 2 : each entity file is parsed on a fork/join pool <br>
+ * Step 3 : the parsed entities are linked together in a single pass <br>
+ *
+ * The parsed entities are kept in a cache (one per model) so that only the new or modified 
+ * entity files (and the entities referencing them) are parsed again when the model is reloaded <br>
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DslModelLoader {
+
+	public static final String ENTITY_FILE_SUFFIX = ".entity" ;
+	public static final String MODEL_FILE_SUFFIX  = ".model" ;
+
+	/**
+	 * Number of files under which a task is not split any more
+	 */
+	private static final int FILES_PER_TASK = 4 ;
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+
+	/**
+	 * Parsing caches : model file path --> cache for the model entities
+	 */
+	private final Map<String, DslParseCache> caches = new HashMap<>();
+
+	/**
+	 * Loads the given DSL model <br>
+	 * Only the new or modified entity files are parsed, the other entities come from the cache
+	 * @param modelFile the '.model' file
+	 * @return
+	 * @throws TelosysModelException if at least one entity cannot be parsed
+	 */
+	public Model loadModel(File modelFile) throws TelosysModelException {
+		File[] entityFiles = getEntityFiles(modelFile);
+		DslParseCache cache = getCache(modelFile);
+		synchronized (cache.getLock()) { // the cached entities are used by a single loading at a time
+			return loadModel(modelFile, entityFiles, cache);
+		}
+	}
+
+	private Model loadModel(File modelFile, File[] entityFiles, DslParseCache cache) throws TelosysModelException {
+		DomainModel domainModel = declareEntities(modelFile, entityFiles);
+		FileStamp[] stamps = new FileStamp[entityFiles.length];
+		Set<String> paths = new HashSet<>();
+		for ( int i = 0 ; i < entityFiles.length ; i++ ) {
+			stamps[i] = new FileStamp(entityFiles[i]);
+			paths.add(stamps[i].getPath());
+		}
+		Set<String> changedFiles = cache.getChangedFiles(Arrays.asList(stamps));
+		if ( ! changedFiles.isEmpty() ) {
+			// Entity file(s) created, modified or deleted 
+			// => the entities referencing them must be parsed again to be linked with the new version
+			Set<String> changedEntities = new HashSet<>();
+			for ( String path : changedFiles ) {
+				changedEntities.add(getEntityName(new File(path)));
+			}
+			cache.retainOnly(paths);
+			cache.removeReferencing(changedEntities);
+		}
+
+		// Reuse the unchanged entities 
+		DomainEntity[] entities = new DomainEntity[entityFiles.length];
+		int[] toBeParsed = new int[entityFiles.length];
+		int n = 0 ;
+		for ( int i = 0 ; i < entityFiles.length ; i++ ) {
+			entities[i] = cache.get(stamps[i]);
+			if ( entities[i] == null ) {
+				toBeParsed[n++] = i ;
+			}
+		}
+
+		// Parse the new or modified entities (in parallel)
+		Map<String,String> errors = new ConcurrentHashMap<>();
+		if ( n > 0 ) {
+			POOL.invoke(new ParsingTask(domainModel, entityFiles, toBeParsed, entities, errors, 0, n));
+		}
+		for ( int k = 0 ; k < n ; k++ ) {
+			int i = toBeParsed[k] ;
+			if ( entities[i] != null ) {
+				cache.put(stamps[i], entities[i], findReferences(entities[i]));
+			}
+		}
+		if ( ! errors.isEmpty() ) {
+			throw new TelosysModelException(modelFile, errors.size() + " parsing error(s)",
+					new TreeMap<String,String>(errors) );
+		}
+		return link(domainModel, entities);
+	}
+
+	/**
+	 * Returns the names of the other entities referenced by the given parsed entity <br>
+	 * (the target entities of its link fields, as resolved by the parser)
+	 * @param entity
+	 * @return 
+	 */
+	protected static Set<String> findReferences(DomainEntity entity) {
+		Set<String> references = new HashSet<>();
+		for ( DomainEntityField field : entity.getFields() ) {
+			if ( field.isEntity() && ! field.getTypeName().equals(entity.getName()) ) {
+				references.add(field.getTypeName());
+			}
+		}
+		return references ;
+	}
+
+	/**
+	 * Returns the parsing cache for the given model (created if necessary)
+	 * @param modelFile
+	 * @return
+	 */
+	public DslParseCache getCache(File modelFile) {
+		String key = modelFile.getAbsolutePath();
+		synchronized (caches) {
+			DslParseCache cache = caches.get(key);
+			if ( cache == null ) {
+				cache = new DslParseCache();
+				caches.put(key, cache);
+			}
+			return cache ;
+		}
+	}
+
+	/**
+	 * Removes all the cached entities 
+	 */
+	public void clearCaches() {
+		synchronized (caches) {
+			caches.clear();
+		}
+	}
+
+	/**
+	 * Returns the entity files for the given model file, sorted by name
+	 * @param modelFile
+	 * @return
+	 */
+	public static File[] getEntityFiles(File modelFile) {
+		File modelFolder = DslModelUtil.getModelFolder(modelFile);
+		File[] files = null ;
+		if ( modelFolder != null && modelFolder.isDirectory() ) {
+			files = modelFolder.listFiles(new FileFilter() {
+				@Override
+				public boolean accept(File file) {
+					return file.isFile() && file.getName().endsWith(ENTITY_FILE_SUFFIX);
+				}
+			});
+		}
+		if ( files == null ) {
+			return new File[0];
+		}
+		Arrays.sort(files);
+		return files ;
+	}
+
+	/**
+	 * Returns the entity name for the given file ( eg 'Car' for 'Car.entity' )
+	 * @param entityFile
+	 * @return
+	 */
+	public static String getEntityName(File entityFile) {
+		String fileName = entityFile.getName();
+		return fileName.substring(0, fileName.length() - ENTITY_FILE_SUFFIX.length());
+	}
+
+	/**
+	 * Returns the model name for the given file ( eg 'foo' for 'foo.model' )
+	 * @param modelFile
+	 * @return
+	 */
+	public static String getModelName(File modelFile) {
+		String fileName = modelFile.getName();
+		if ( fileName.endsWith(MODEL_FILE_SUFFIX) ) {
+			return fileName.substring(0, fileName.length() - MODEL_FILE_SUFFIX.length());
+		}
+		return fileName ;
+	}
+
+	/**
+	 * Creates a new domain model with all the entities declared (not yet parsed) <br>
+	 * in order to allow references between entities during the parsing
+	 * @param modelFile
+	 * @param entityFiles
+	 * @return
+	 */
+	protected DomainModel declareEntities(File modelFile, File[] entityFiles) {
+		DomainModel domainModel = new DomainModel(getModelName(modelFile));
+		for ( File entityFile : entityFiles ) {
+			domainModel.putEntity(new DomainEntity(getEntityName(entityFile)));
+		}
+		return domainModel ;
+	}
+
+	/**
+	 * Replaces the declared entities by the parsed entities and converts the result <br>
+	 * (the cross-entity references are resolved by the conversion)
+	 * @param domainModel
+	 * @param entities
+	 * @return
+	 */
+	protected Model link(DomainModel domainModel, DomainEntity[] entities) {
+		for ( DomainEntity entity : entities ) {
+			domainModel.putEntity(entity);
+		}
+		Converter converter = new Converter();
+		return converter.convertToGenericModel(domainModel);
+	}
+
+	/**
+	 * Parses a single entity file
+	 * @param domainModel the model where all the entities are declared
+	 * @param entityFile
+	 * @return
+	 */
+	protected static DomainEntity parseEntity(DomainModel domainModel, File entityFile) {
+		EntityParser entityParser = new EntityParser(domainModel);
+		return entityParser.parse(entityFile);
+	}
+
+	/**
+	 * Fork/join task parsing a range of entity files
+	 */
+	private static class ParsingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final DomainModel        domainModel ;
+		private final File[]             files ;
+		private final int[]              indexes ;
+		private final DomainEntity[]     entities ;
+		private final Map<String,String> errors ;
+		private final int                from ;
+		private final int                to ;
+
+		/**
+		 * Constructor
+		 * @param domainModel
+		 * @param files all the entity files
+		 * @param indexes indexes of the files to be parsed
+		 * @param entities result (same indexes as files)
+		 * @param errors 
+		 * @param from first position in 'indexes' (inclusive) 
+		 * @param to last position in 'indexes' (exclusive)
+		 */
+		protected ParsingTask(DomainModel domainModel, File[] files, int[] indexes, 
+				DomainEntity[] entities, Map<String,String> errors, int from, int to) {
+			super();
+			this.domainModel = domainModel;
+			this.files = files;
+			this.indexes = indexes;
+			this.entities = entities;
+			this.errors = errors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ( to - from <= FILES_PER_TASK ) {
+				for ( int k = from ; k < to ; k++ ) {
+					int i = indexes[k] ;
+					try {
+						entities[i] = parseEntity(domainModel, files[i]);
+					} catch (EntityParserException e) {
+						errors.put(files[i].getName(), String.valueOf(e.getMessage()));
+					}
+				}
+			}
+			else {
+				int middle = ( from + to ) >>> 1 ;
+				invokeAll(new ParsingTask(domainModel, files, indexes, entities, errors, from, middle),
+						new ParsingTask(domainModel, files, indexes, entities, errors, middle, to) );
+			}
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Writes the entities of a loaded model as DSL entity files ( one '.entity' file per entity ) <br>
+ * The files are written in parallel in a temporary folder, renamed as the model folder if all 
+ * the entities have been written <br>
+ * Only the annotations parsed by the Telosys 3.1 DSL are written ( '@Id', '@NotNull', '@SizeMax' ) : <br>
+ * the database table is kept in the header comment, the database column names are not kept 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DslModelWriter {
+
+	/**
+	 * Max number of entities written by a single task (below this threshold no more split)
+	 */
+	private static final int ENTITIES_PER_TASK = 16 ;
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private static final String STRING_TYPE = "string" ;
+
+	private static final String TEMP_FOLDER_SUFFIX = ".tmp" ;
+
+	/**
+	 * Private constructor
+	 */
+	private DslModelWriter() {
+	}
+
+	/**
+	 * Writes all the entities of the given model in the given DSL model folder <br>
+	 * The model folder is replaced only if all the entities have been written 
+	 * (in case of error it remains unchanged)
+	 * @param model
+	 * @param modelFolder the model folder (void or not existing)
+	 * @param origin the origin of the model (put in the header comment of each entity)
+	 * @return the errors for each entity (void if no error) 
+	 * @throws IOException if the temporary folder cannot be created or renamed
+	 */
+	public static Map<String, String> writeEntities(Model model, File modelFolder, String origin) throws IOException {
+		Path folder = modelFolder.toPath();
+		Path tempFolder = folder.resolveSibling(folder.getFileName() + TEMP_FOLDER_SUFFIX);
+		deleteFolder(tempFolder); // left by a previous failure (if any)
+		Files.createDirectories(tempFolder);
+		List<Entity> entities = model.getEntities();
+		Entity[] array = entities.toArray(new Entity[entities.size()]);
+		Map<String, String> errors = new ConcurrentHashMap<>();
+		try {
+			if ( array.length > 0 ) {
+				POOL.invoke(new WritingTask(array, tempFolder, origin, errors, 0, array.length));
+			}
+			if ( errors.isEmpty() ) {
+				Files.deleteIfExists(folder); // void folder (DirectoryNotEmptyException if not void)
+				Files.move(tempFolder, folder, StandardCopyOption.ATOMIC_MOVE);
+			}
+		}
+		finally {
+			deleteFolder(tempFolder); // still there only in case of error
+		}
+		return new TreeMap<>(errors);
+	}
+
+	/**
+	 * Deletes the given folder and its files (if any)
+	 * @param folder
+	 * @throws IOException
+	 */
+	private static void deleteFolder(Path folder) throws IOException {
+		if ( Files.isDirectory(folder) ) {
+			try ( DirectoryStream<Path> files = Files.newDirectoryStream(folder) ) {
+				for ( Path file : files ) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(folder);
+		}
+	}
+
+	/**
+	 * Writes the given entity in its '.entity' file
+	 * @param entity
+	 * @param modelFolder
+	 * @param origin 
+	 * @throws IOException
+	 */
+	protected static void writeEntity(Entity entity, Path modelFolder, String origin) throws IOException {
+		Path file = modelFolder.resolve(entity.getClassName() + DslModelLoader.ENTITY_FILE_SUFFIX);
+		try ( BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8) ) {
+			writer.write(buildEntityText(entity, origin));
+		}
+	}
+
+	/**
+	 * Returns the DSL text for the given entity
+	 * @param entity
+	 * @param origin 
+	 * @return
+	 */
+	protected static String buildEntityText(Entity entity, String origin) {
+		StringBuilder sb = new StringBuilder(1024);
+		sb.append("// Entity ").append(entity.getClassName());
+		if ( entity.getDatabaseTable() != null ) {
+			sb.append(" (table '").append(entity.getDatabaseTable()).append("')");
+		}
+		sb.append(" converted from '").append(origin).append("'\n");
+		sb.append(entity.getClassName()).append(" {\n");
+		// attributes and links names must be unique in the entity
+		Set<String> names = new HashSet<>();
+		if ( entity.getAttributes() != null ) {
+			for ( Attribute attribute : entity.getAttributes() ) {
+				sb.append("  ").append(uniqueName(attribute.getName(), names)).append(" : ").append(attribute.getNeutralType());
+				appendAnnotations(sb, attribute);
+				sb.append(" ;\n");
+			}
+		}
+		if ( entity.getLinks() != null ) {
+			for ( Link link : entity.getLinks() ) {
+				sb.append("  ").append(uniqueName(link.getFieldName(), names)).append(" : ").append(link.getTargetEntityClassName());
+				if ( link.isCardinalityOneToMany() || link.isCardinalityManyToMany() ) {
+					sb.append("[]");
+				}
+				sb.append(" ;\n");
+			}
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the given name if not already used, else the name with a number suffix ( 'name2', 'name3', etc )
+	 * @param name
+	 * @param names the names already used (the returned name is added)
+	 * @return
+	 */
+	protected static String uniqueName(String name, Set<String> names) {
+		String unique = name ;
+		int n = 1 ;
+		while ( ! names.add(unique) ) {
+			n++ ;
+			unique = name + n ;
+		}
+		return unique ;
+	}
+
+	private static void appendAnnotations(StringBuilder sb, Attribute attribute) {
+		StringBuilder annotations = new StringBuilder();
+		if ( attribute.isKeyElement() ) {
+			append(annotations, "@Id");
+		}
+		if ( attribute.isNotNull() ) {
+			append(annotations, "@NotNull");
+		}
+		if ( STRING_TYPE.equals(attribute.getNeutralType()) && attribute.getMaxLength() != null ) {
+			append(annotations, "@SizeMax(" + attribute.getMaxLength() + ")");
+		}
+		if ( annotations.length() > 0 ) {
+			sb.append(" { ").append(annotations).append(" }");
+		}
+	}
+
+	private static void append(StringBuilder sb, String annotation) {
+		if ( sb.length() > 0 ) {
+			sb.append(", ");
+		}
+		sb.append(annotation);
+	}
+
+	/**
+	 * Writing task : writes a range of entities (split if too large)
+	 */
+	private static class WritingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Entity[]           entities ;
+		private final Path               modelFolder ;
+		private final String             origin ;
+		private final Map<String,String> errors ;
+		private final int                from ;
+		private final int                to ;
+
+		/**
+		 * Constructor
+		 * @param entities
+		 * @param modelFolder
+		 * @param origin
+		 * @param errors
+		 * @param from first index (inclusive) 
+		 * @param to last index (exclusive)
+		 */
+		protected WritingTask(Entity[] entities, Path modelFolder, String origin, Map<String,String> errors, 
+				int from, int to) {
+			super();
+			this.entities = entities;
+			this.modelFolder = modelFolder;
+			this.origin = origin;
+			this.errors = errors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ( to - from <= ENTITIES_PER_TASK ) {
+				for ( int i = from ; i < to ; i++ ) {
+					try {
+						writeEntity(entities[i], modelFolder, origin);
+					} catch (IOException | RuntimeException e) {
+						errors.put(entities[i].getClassName(), String.valueOf(e.getMessage()));
+					}
+				}
+			}
+			else {
+				int middle = ( from + to ) >>> 1 ;
+				invokeAll(new WritingTask(entities, modelFolder, origin, errors, from, middle),
+						new WritingTask(entities, modelFolder, origin, errors, middle, to) );
+			}
+		}
+	}
+}
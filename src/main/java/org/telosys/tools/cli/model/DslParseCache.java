@@ -0,0 +1,179 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+
+/**
+ * Parsing cache for the entities of a single DSL model <br>
+ * Each parsed entity is kept with the stamp (path, time, size) of its file 
+ * and the names of the other entities referenced by this entity (its link targets) <br>
+ * When an entity file is created, modified or deleted, only the entities referencing it are 
+ * evicted (they must be parsed again to be linked with the new entity) <br>
+ * Entities with parsing errors are never cached <br>
+ * The cached entities must only be used by the owner of the cache lock ( see 'getLock' )
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class DslParseCache {
+
+	private final Object lock = new Object();
+
+	// 'entity file path' --> 'cached entity'
+	private final Map<String, CachedEntity> entities = new HashMap<>();
+
+	private int hits   = 0 ;
+	private int misses = 0 ;
+
+	/**
+	 * Returns the lock to be held while a model is loaded with this cache <br>
+	 * (the cached entities are mutable : a single model loading at a time)
+	 * @return
+	 */
+	public Object getLock() {
+		return lock ;
+	}
+
+	/**
+	 * Returns the cached entity for the given file if the file has not changed
+	 * @param stamp the current stamp of the entity file
+	 * @return the entity or null if not in the cache or obsolete
+	 */
+	public synchronized DomainEntity get(FileStamp stamp) {
+		CachedEntity cached = entities.get(stamp.getPath());
+		if ( cached != null && cached.stamp.equals(stamp) ) {
+			hits++ ;
+			return cached.entity ;
+		}
+		misses++ ;
+		return null ;
+	}
+
+	/**
+	 * Stores a parsed entity
+	 * @param stamp
+	 * @param entity
+	 * @param references the names of the entities referenced by the entity (link targets)
+	 */
+	public synchronized void put(FileStamp stamp, DomainEntity entity, Set<String> references) {
+		entities.put(stamp.getPath(), new CachedEntity(stamp, entity, references));
+	}
+
+	/**
+	 * Removes an entity from the cache
+	 * @param file
+	 */
+	public synchronized void remove(File file) {
+		entities.remove(file.getAbsolutePath());
+	}
+
+	/**
+	 * Returns the entity files that are new or modified since they were cached, or deleted 
+	 * @param stamps the stamps of the current entity files
+	 * @return the paths of the changed files
+	 */
+	public synchronized Set<String> getChangedFiles(Collection<FileStamp> stamps) {
+		Set<String> changed = new HashSet<>();
+		Set<String> current = new HashSet<>();
+		for ( FileStamp stamp : stamps ) {
+			current.add(stamp.getPath());
+			CachedEntity cached = entities.get(stamp.getPath());
+			if ( cached == null || ! cached.stamp.equals(stamp) ) {
+				changed.add(stamp.getPath());
+			}
+		}
+		for ( String path : entities.keySet() ) {
+			if ( ! current.contains(path) ) {
+				changed.add(path); // deleted
+			}
+		}
+		return changed ;
+	}
+
+	/**
+	 * Drops the entries for the files that are not in the given set (deleted files)
+	 * @param paths the absolute paths of the current entity files
+	 * @return true if at least one entry has been removed
+	 */
+	public synchronized boolean retainOnly(Set<String> paths) {
+		boolean removed = false ;
+		Iterator<String> iterator = entities.keySet().iterator();
+		while ( iterator.hasNext() ) {
+			if ( ! paths.contains(iterator.next()) ) {
+				iterator.remove();
+				removed = true ;
+			}
+		}
+		return removed ;
+	}
+
+	/**
+	 * Drops the entries referencing at least one of the given entities 
+	 * @param entityNames
+	 * @return the number of entries removed
+	 */
+	public synchronized int removeReferencing(Set<String> entityNames) {
+		int count = 0 ;
+		Iterator<CachedEntity> iterator = entities.values().iterator();
+		while ( iterator.hasNext() ) {
+			if ( ! Collections.disjoint(iterator.next().references, entityNames) ) {
+				iterator.remove();
+				count++ ;
+			}
+		}
+		return count ;
+	}
+
+	public synchronized void clear() {
+		entities.clear();
+	}
+
+	public synchronized int size() {
+		return entities.size();
+	}
+
+	public synchronized int getHits() {
+		return hits ;
+	}
+
+	public synchronized int getMisses() {
+		return misses ;
+	}
+
+	private static class CachedEntity {
+		private final FileStamp    stamp ;
+		private final DomainEntity entity ;
+		private final Set<String>  references ;
+
+		protected CachedEntity(FileStamp stamp, DomainEntity entity, Set<String> references) {
+			super();
+			this.stamp = stamp;
+			this.entity = entity;
+			this.references = references;
+		}
+	}
+}
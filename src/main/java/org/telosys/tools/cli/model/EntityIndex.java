@@ -0,0 +1,211 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.telosys.tools.api.ApiUtil;
+import org.telosys.tools.cli.commons.XmlUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * Entity names index built without a full model loading <br>
+ *  - DSL model : entity file names + header scan of each file <br>
+ *  - DB model  : streaming (StAX) pass over the 'table' elements <br>
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class EntityIndex {
+
+	/**
+	 * Max number of characters read in an entity file to find the entity header
+	 */
+	private static final int HEADER_MAX_LENGTH = 4096 ;
+
+	private static final String TABLE           = "table" ;
+	private static final String TABLE_NAME      = "name" ;
+	private static final String TABLE_JAVA_BEAN = "javaBean" ;
+	private static final String COLUMN          = "column" ;
+	private static final String COLUMN_PK       = "dbPrimaryKey" ;
+
+	/**
+	 * Private constructor
+	 */
+	private EntityIndex() {
+	}
+
+	/**
+	 * Returns the entities summaries for the given model file
+	 * @param modelFile
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public static List<EntitySummary> build(File modelFile) throws TelosysToolsException {
+		if ( ApiUtil.isDslModelFile(modelFile) ) {
+			return buildForDslModel(modelFile);
+		}
+		else {
+			return buildForDbModel(modelFile);
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// DSL model
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Returns the entities summaries for the given DSL model <br>
+	 * Index check : the entity name declared in the file doesn't match the file name
+	 * @param modelFile
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public static List<EntitySummary> buildForDslModel(File modelFile) throws TelosysToolsException {
+		List<EntitySummary> list = new LinkedList<>();
+		for ( File entityFile : DslModelLoader.getEntityFiles(modelFile) ) {
+			String entityName = DslModelLoader.getEntityName(entityFile);
+			String declaredName = readDeclaredEntityName(entityFile);
+			list.add(new EntitySummary(entityName, null, 
+					entityName.equals(declaredName) ? null : EntitySummary.NAME_MISMATCH ));
+		}
+		return list ;
+	}
+
+	/**
+	 * Reads the entity name located before the first '{' (comments '//' and '/* ... *&#47;' are ignored, 
+	 * as well as the entity annotations, eg '@DbTable(CAR)')
+	 * @param entityFile
+	 * @return the name or null if not found
+	 * @throws TelosysToolsException
+	 */
+	protected static String readDeclaredEntityName(File entityFile) throws TelosysToolsException {
+		try ( BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(entityFile), StandardCharsets.UTF_8)) ) {
+			StringBuilder sb = new StringBuilder();
+			boolean inLineComment = false ;
+			boolean inBlockComment = false ;
+			int previous = -1 ;
+			int c ;
+			int count = 0 ;
+			while ( ( c = reader.read() ) >= 0 && count++ < HEADER_MAX_LENGTH ) {
+				if ( inLineComment ) {
+					if ( c == '\n' ) {
+						inLineComment = false ;
+					}
+				}
+				else if ( inBlockComment ) {
+					if ( c == '/' && previous == '*' ) {
+						inBlockComment = false ;
+						c = -1 ; // this '/' cannot start a new comment
+					}
+				}
+				else if ( c == '/' && previous == '/' ) {
+					inLineComment = true ;
+					sb.setLength(sb.length() - 1); // remove the first '/'
+				}
+				else if ( c == '*' && previous == '/' ) {
+					inBlockComment = true ;
+					sb.setLength(sb.length() - 1); // remove the '/'
+					c = -1 ; // this '*' cannot end the comment
+				}
+				else if ( c == '{' ) {
+					return getNameAfterAnnotations(sb.toString());
+				}
+				else {
+					sb.append((char) c);
+				}
+				previous = c ;
+			}
+			return null ;
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read entity file '" + entityFile.getName() + "'", e);
+		}
+	}
+
+	private static String getNameAfterAnnotations(String header) {
+		String s = header.substring(header.lastIndexOf(')') + 1).trim();
+		String[] tokens = s.split("\\s+");
+		String name = tokens[tokens.length - 1];
+		return name.length() > 0 && ! name.startsWith("@") ? name : null ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// DB model
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Returns the entities summaries for the given DB model <br>
+	 * Index check : the table has no primary key
+	 * @param modelFile
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public static List<EntitySummary> buildForDbModel(File modelFile) throws TelosysToolsException {
+		List<EntitySummary> list = new LinkedList<>();
+		XMLInputFactory factory = XmlUtil.newSecureInputFactory();
+		try ( InputStream in = new BufferedInputStream(new FileInputStream(modelFile)) ) {
+			XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				String className = null ;
+				String tableName = null ;
+				boolean primaryKey = false ;
+				while ( reader.hasNext() ) {
+					int event = reader.next();
+					if ( event == XMLStreamConstants.START_ELEMENT ) {
+						String element = reader.getLocalName();
+						if ( TABLE.equals(element) ) {
+							className = reader.getAttributeValue(null, TABLE_JAVA_BEAN);
+							tableName = reader.getAttributeValue(null, TABLE_NAME);
+							primaryKey = false ;
+						}
+						else if ( COLUMN.equals(element) ) {
+							primaryKey = primaryKey || "true".equals(reader.getAttributeValue(null, COLUMN_PK));
+						}
+					}
+					else if ( event == XMLStreamConstants.END_ELEMENT && TABLE.equals(reader.getLocalName()) ) {
+						// no 'javaBean' attribute => the table name is used as entity name
+						String entityName = className != null ? className : tableName ;
+						if ( entityName != null ) {
+							list.add(new EntitySummary(entityName, tableName, 
+									primaryKey ? null : EntitySummary.NO_PRIMARY_KEY ));
+						}
+						className = null ;
+						tableName = null ;
+					}
+				}
+			}
+			finally {
+				reader.close();
+			}
+		} catch (IOException | XMLStreamException e) {
+			throw new TelosysToolsException("Cannot read model file '" + modelFile.getName() + "'", e);
+		}
+		return list ;
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+/**
+ * Lightweight entity description built from a model index (without full parsing) : 
+ * class name, table name and index check <br>
+ * The index check is not a model warning (the warnings are only known with the full model) : 
+ * it is a problem detected by the index itself <br>
+ *  - DSL model : the entity name declared in the file differs from the file name <br>
+ *  - DB model  : the table has no primary key 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class EntitySummary {
+
+	public static final String NAME_MISMATCH  = "declared name differs from file name" ;
+	public static final String NO_PRIMARY_KEY = "no primary key" ;
+
+	private final String  className ;
+	private final String  databaseTable ;
+	private final String  indexCheck ;
+
+	/**
+	 * Constructor
+	 * @param className
+	 * @param databaseTable (can be null)
+	 * @param indexCheck the problem detected by the index (or null if none)
+	 */
+	public EntitySummary(String className, String databaseTable, String indexCheck) {
+		super();
+		this.className = className;
+		this.databaseTable = databaseTable;
+		this.indexCheck = indexCheck;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getDatabaseTable() {
+		return databaseTable;
+	}
+
+	/**
+	 * Returns the problem detected by the index 
+	 * @return the problem ( NAME_MISMATCH or NO_PRIMARY_KEY ) or null if none
+	 */
+	public String getIndexCheck() {
+		return indexCheck;
+	}
+}
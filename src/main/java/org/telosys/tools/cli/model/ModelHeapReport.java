@@ -0,0 +1,171 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Estimated heap usage of the strings of a loaded model <br>
+ * The model is explored with its public API only (entities, attributes and links) <br>
+ * The sizes are approximations (64 bits JVM with compressed references)
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ModelHeapReport {
+
+	/**
+	 * Java 9+ compact strings : 'byte[]' with 1 byte per char for Latin-1 strings (else 2) <br>
+	 * Java 8 and before : 'char[]' with 2 bytes per char
+	 */
+	private static final boolean COMPACT_STRINGS = ! System.getProperty("java.specification.version", "").startsWith("1.") ;
+
+	private final Map<String, Boolean> distinctValues = new HashMap<>();
+	private final Map<String, Boolean> stringInstances = new IdentityHashMap<>();
+
+	private int  entities        = 0 ;
+	private int  attributes      = 0 ;
+	private int  links           = 0 ;
+	private long stringsBytes    = 0 ;
+	private long duplicatesBytes = 0 ;
+
+	/**
+	 * Builds the report for the given model
+	 * @param model
+	 * @return
+	 */
+	public static ModelHeapReport build(Model model) {
+		ModelHeapReport report = new ModelHeapReport();
+		for ( Entity entity : model.getEntities() ) {
+			report.addEntity(entity);
+		}
+		return report ;
+	}
+
+	private void addEntity(Entity entity) {
+		entities++ ;
+		onString(entity.getClassName());
+		onString(entity.getDatabaseTable());
+		if ( entity.getAttributes() != null ) {
+			for ( Attribute attribute : entity.getAttributes() ) {
+				attributes++ ;
+				onString(attribute.getName());
+				onString(attribute.getNeutralType());
+				onString(attribute.getDatabaseName());
+			}
+		}
+		if ( entity.getLinks() != null ) {
+			for ( Link link : entity.getLinks() ) {
+				links++ ;
+				onString(link.getFieldName());
+				onString(link.getTargetEntityClassName());
+			}
+		}
+	}
+
+	private void onString(String s) {
+		if ( s != null && stringInstances.put(s, Boolean.TRUE) == null ) {
+			// new string instance
+			long size = stringSize(s);
+			stringsBytes += size ;
+			if ( distinctValues.put(s, Boolean.TRUE) != null ) {
+				duplicatesBytes += size ; // same value already found in another instance
+			}
+		}
+	}
+
+	/**
+	 * Returns the estimated size of the given string ( String object + value array ) <br>
+	 * (64 bits JVM with compressed references)
+	 * @param s
+	 * @return
+	 */
+	public static long stringSize(String s) {
+		if ( COMPACT_STRINGS ) {
+			// header 12 + value 4 + hash 4 + coder 1 + hashIsZero 1 ; byte[] : header 16 + 1 or 2 bytes per char
+			return align(12L + 4L + 4L + 1L + 1L) + align(16L + ( isLatin1(s) ? 1L : 2L ) * s.length()) ;
+		}
+		else {
+			// header 12 + value 4 + hash 4 ; char[] : header 16 + 2 bytes per char
+			return align(12L + 4L + 4L) + align(16L + 2L * s.length()) ;
+		}
+	}
+
+	private static boolean isLatin1(String s) {
+		for ( int i = 0 ; i < s.length() ; i++ ) {
+			if ( s.charAt(i) > 0xFF ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	private static long align(long size) {
+		return ( size + 7 ) & ~7L ;
+	}
+
+	public int getEntities() {
+		return entities;
+	}
+
+	public int getAttributes() {
+		return attributes;
+	}
+
+	public int getLinks() {
+		return links;
+	}
+
+	public int getStrings() {
+		return stringInstances.size();
+	}
+
+	public int getDistinctStrings() {
+		return distinctValues.size();
+	}
+
+	public long getStringsBytes() {
+		return stringsBytes;
+	}
+
+	public long getDuplicatesBytes() {
+		return duplicatesBytes;
+	}
+
+	/**
+	 * Returns the report as text lines
+	 * @return
+	 */
+	public String[] toLines() {
+		return new String[] {
+			"Model size : " + entities + " entities, " + attributes + " attributes, " + links + " links",
+			"Strings heap usage (estimated) : " + getStrings() + " strings (" + kb(stringsBytes) + " KB), " 
+					+ getDistinctStrings() + " distinct values",
+			" . duplicated strings : " + kb(duplicatesBytes) + " KB"
+		};
+	}
+
+	private long kb(long bytes) {
+		return ( bytes + 1023 ) / 1024 ;
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.telosys.tools.cli.commons.FolderWatcher;
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * In-session index of the model files located in the models folder <br>
+ * The folder is scanned only when the index is invalid : first use, change notified by the 
+ * folder watcher (WatchService, or folder modification date if not available) or explicit invalidation <br>
+ * Lookups use an exact map ( file name and name without suffix ) and a sorted map for prefixes 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ModelIndex {
+
+	public static final String DB_MODEL_FILE_SUFFIX  = ".dbmodel" ;
+
+	private final File modelsFolder ;
+
+	private final FolderWatcher watcher ;
+	private boolean       valid = false ;
+	private int           scans = 0 ;
+
+	// file name --> file 
+	private final TreeMap<String, File> filesByName = new TreeMap<>();
+	// file name and name without suffix --> file(s) 
+	private final Map<String, List<File>> exactMap = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * @param modelsFolder
+	 */
+	public ModelIndex(File modelsFolder) {
+		super();
+		this.modelsFolder = modelsFolder ;
+		this.watcher = new FolderWatcher(modelsFolder);
+	}
+
+	/**
+	 * Stops watching the models folder
+	 */
+	public synchronized void close() {
+		watcher.close();
+	}
+
+	/**
+	 * Marks the index as invalid (the folder will be scanned at the next lookup)
+	 */
+	public synchronized void invalidate() {
+		valid = false ;
+	}
+
+	/**
+	 * Returns true if the models folder is watched (changes detected without scanning)
+	 * @return
+	 */
+	public synchronized boolean isWatched() {
+		return watcher.isWatched() ;
+	}
+
+	/**
+	 * Returns the number of folder scans since the index creation
+	 * @return
+	 */
+	public synchronized int getScans() {
+		return scans ;
+	}
+
+	private void refreshIfNeeded() {
+		if ( watcher.hasChanged() ) {
+			valid = false ;
+		}
+		if ( ! valid ) {
+			scan();
+		}
+	}
+
+	private void scan() {
+		filesByName.clear();
+		exactMap.clear();
+		File[] files = modelsFolder.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return isModelFile(file.getName()) && file.isFile() ;
+			}
+		});
+		if ( files != null ) {
+			for ( File file : files ) {
+				String name = file.getName();
+				filesByName.put(name, file);
+				addExact(name, file);
+				addExact(removeSuffix(name), file);
+			}
+		}
+		scans++ ;
+		valid = true ;
+	}
+
+	private void addExact(String key, File file) {
+		List<File> list = exactMap.get(key);
+		if ( list == null ) {
+			list = new LinkedList<>();
+			exactMap.put(key, list);
+		}
+		list.add(file);
+	}
+
+	private boolean isModelFile(String fileName) {
+		return fileName.endsWith(DslModelLoader.MODEL_FILE_SUFFIX) || fileName.endsWith(DB_MODEL_FILE_SUFFIX) ;
+	}
+
+	private String removeSuffix(String fileName) {
+		int i = fileName.lastIndexOf('.');
+		return i > 0 ? fileName.substring(0, i) : fileName ;
+	}
+
+	/**
+	 * Returns all the model files sorted by name
+	 * @return
+	 */
+	public synchronized List<File> getModels() {
+		refreshIfNeeded();
+		return new ArrayList<>(filesByName.values());
+	}
+
+	/**
+	 * Returns the model file for the given name 
+	 * @param modelName the model name with or without its suffix ( eg 'foo', 'foo.model', 'foo.dbmodel' )
+	 * @return the file or null if not found
+	 * @throws TelosysToolsException if the name is ambiguous ( eg 'foo' for 'foo.model' and 'foo.dbmodel' )
+	 */
+	public synchronized File getModelFile(String modelName) throws TelosysToolsException {
+		refreshIfNeeded();
+		List<File> files = exactMap.get(modelName);
+		if ( files == null ) {
+			return null ;
+		}
+		else if ( files.size() > 1 ) {
+			throw new TelosysToolsException("Ambiguous model name '" + modelName + "' (" + files.size() + " models found)");
+		}
+		return files.get(0);
+	}
+
+	/**
+	 * Returns the model files matching the given name : the file with this exact name if any, 
+	 * else all the files starting with this name
+	 * @param modelName
+	 * @return
+	 */
+	public synchronized List<File> findModelFiles(String modelName) {
+		refreshIfNeeded();
+		List<File> files = exactMap.get(modelName);
+		if ( files != null ) {
+			return new ArrayList<>(files);
+		}
+		SortedMap<String, File> subMap = filesByName.subMap(modelName, modelName + Character.MAX_VALUE);
+		return new ArrayList<>(subMap.values());
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.telosys.tools.api.ApiUtil;
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Model loader used by the CLI commands (the launcher loads its model with the Telosys library) <br>
+ * DSL models are loaded with the parallel loader, DB models with the standard API <br>
+ * A model can be preloaded in background, the next 'loadModel' for this model waits for the preloading result
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ModelLoader {
+
+	private final DslModelLoader dslModelLoader ;
+
+	private ExecutorService preloadExecutor = null ;
+	private Preloading      preloading = null ;
+
+	/**
+	 * Constructor
+	 */
+	public ModelLoader() {
+		super();
+		this.dslModelLoader = new DslModelLoader();
+	}
+
+	/**
+	 * Starts the loading of the given model file in background <br>
+	 * (replaces the previous preloading if any)
+	 * @param telosysProject
+	 * @param modelFile
+	 */
+	public synchronized void preload(final TelosysProject telosysProject, final File modelFile) {
+		if ( preloadExecutor == null ) {
+			preloadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "model-preloader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		if ( preloading != null ) {
+			preloading.future.cancel(false); // replaced (not started or result never used)
+		}
+		FileStamp stamp = new FileStamp(modelFile);
+		Future<Model> future = preloadExecutor.submit(new Callable<Model>() {
+			@Override
+			public Model call() throws Exception {
+				return doLoadModel(telosysProject, modelFile);
+			}
+		});
+		preloading = new Preloading(stamp, future);
+	}
+
+	/**
+	 * Returns (and forgets) the current preloading if it's for the given model file
+	 * @param modelFile
+	 * @return the preloading or null if none
+	 */
+	private synchronized Preloading takePreloading(File modelFile) {
+		Preloading p = preloading ;
+		if ( p != null && p.stamp.getPath().equals(modelFile.getAbsolutePath()) ) {
+			preloading = null ;
+			return p ;
+		}
+		return null ;
+	}
+
+	/**
+	 * Loads the given model file <br>
+	 * If the model is being preloaded, waits for the end of the preloading : <br>
+	 *  - DB model unchanged since the preloading : returns the preloaded model or throws the preloading error <br>
+	 *  - DSL model : the preloading has filled the parsing cache, the model is loaded with this cache 
+	 *    (only the entities modified since the preloading are parsed again, the parsing errors are reported 
+	 *    by this loading as the entities in error are never cached) <br>
+	 *  - DB model modified since the preloading : the obsolete preloading is cancelled and the file is reloaded
+	 * @param telosysProject
+	 * @param modelFile
+	 * @return
+	 * @throws TelosysToolsException (TelosysModelException if the model is invalid)
+	 */
+	public Model loadModel(TelosysProject telosysProject, File modelFile) throws TelosysToolsException {
+		Preloading p = takePreloading(modelFile);
+		if ( p != null ) {
+			if ( ApiUtil.isDslModelFile(modelFile) ) {
+				p.await(); // parsing cache filled by the preloading
+			}
+			else if ( p.stamp.isSameAs(modelFile) ) {
+				return p.waitForModel(); // throws the preloading error if any
+			}
+			else {
+				p.future.cancel(false);
+			}
+		}
+		return doLoadModel(telosysProject, modelFile);
+	}
+
+	private Model doLoadModel(TelosysProject telosysProject, File modelFile) throws TelosysToolsException {
+		if ( ApiUtil.isDslModelFile(modelFile) ) {
+			return dslModelLoader.loadModel(modelFile);
+		}
+		else {
+			return telosysProject.loadModel(modelFile);
+		}
+	}
+
+	/**
+	 * Model loading in progress
+	 */
+	private static class Preloading {
+		private final FileStamp     stamp ;
+		private final Future<Model> future ;
+
+		protected Preloading(FileStamp stamp, Future<Model> future) {
+			super();
+			this.stamp = stamp;
+			this.future = future;
+		}
+
+		/**
+		 * Waits for the end of the preloading (its outcome is not used)
+		 * @throws TelosysToolsException if interrupted
+		 */
+		protected void await() throws TelosysToolsException {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new TelosysToolsException("Model loading interrupted", e);
+			} catch (ExecutionException | CancellationException e) {
+				// errors reported by the next loading
+			}
+		}
+
+		/**
+		 * Waits for the end of the preloading and returns the model
+		 * @return
+		 * @throws TelosysToolsException the preloading error if any
+		 */
+		protected Model waitForModel() throws TelosysToolsException {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new TelosysToolsException("Model loading interrupted", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if ( cause instanceof TelosysToolsException ) {
+					throw (TelosysToolsException) cause ;
+				}
+				else if ( cause instanceof RuntimeException ) {
+					throw (RuntimeException) cause ;
+				}
+				throw new TelosysToolsException("Cannot load model", cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.telosys.tools.api.ApiUtil;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Model validator : applies the validation rules to each entity in parallel <br>
+ * The result of each entity is kept with the hash of its file (the model file for a DB model) 
+ * so that only the modified entities are revalidated in 'changed only' mode
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ModelValidator {
+
+	/**
+	 * Max number of entities validated by a single task (below this threshold no more split)
+	 */
+	private static final int ENTITIES_PER_TASK = 8 ;
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private final List<ValidationRule> rules ;
+
+	// Results for each model ( model file path --> entity name --> result )
+	private final Map<String, Map<String, CachedResult>> caches = new HashMap<>();
+
+	/**
+	 * Constructor (with the standard rules)
+	 */
+	public ModelValidator() {
+		this(ValidationRules.getStandardRules());
+	}
+
+	/**
+	 * Constructor
+	 * @param rules
+	 */
+	public ModelValidator(List<ValidationRule> rules) {
+		super();
+		this.rules = new ArrayList<>(rules);
+	}
+
+	/**
+	 * Validates the given model
+	 * @param modelFile the model file (used to compute the entities hash)
+	 * @param model the loaded model
+	 * @param changedOnly if true only the entities modified since the previous validation are checked
+	 * @return
+	 */
+	public ValidationReport validate(File modelFile, Model model, boolean changedOnly) {
+		long start = System.nanoTime();
+		List<Entity> entities = model.getEntities() != null ? model.getEntities() : new LinkedList<Entity>();
+		Set<String> entityNames = new TreeSet<>();
+		for ( Entity entity : entities ) {
+			entityNames.add(entity.getClassName());
+		}
+		// The links rule depends on the other entities : the names are part of the hash
+		String namesHash = hash(entityNames) ;
+		// DSL model : one file per entity / DB model : one file for all the entities
+		boolean dslModel = ApiUtil.isDslModelFile(modelFile) ;
+		Map<String, String> filesHashes = dslModel ? computeEntitiesHashes(modelFile) : null ;
+		String modelHash = dslModel ? null : hash(modelFile) ;
+
+		Map<String, CachedResult> cache = getCache(modelFile);
+		ValidationReport report = new ValidationReport(getRulesNames());
+		List<Entity> toValidate = new ArrayList<>();
+		List<String> toValidateKeys = new ArrayList<>();
+		synchronized (cache) {
+			cache.keySet().retainAll(entityNames); // forget deleted entities
+			for ( Entity entity : entities ) {
+				String name = entity.getClassName();
+				String fileHash = dslModel ? filesHashes.get(name) : modelHash ;
+				String key = fileHash != null ? fileHash + "/" + namesHash : null ;
+				CachedResult cached = cache.get(name);
+				if ( changedOnly && key != null && cached != null && key.equals(cached.key) ) {
+					report.addReused(name, cached.messages);
+				}
+				else {
+					toValidate.add(entity);
+					toValidateKeys.add(key);
+				}
+			}
+		}
+
+		// Parallel validation
+		int n = toValidate.size();
+		Entity[] array = toValidate.toArray(new Entity[n]);
+		@SuppressWarnings("unchecked")
+		List<String>[] results = new List[n];
+		AtomicLongArray timings = new AtomicLongArray(rules.size());
+		if ( n > 0 ) {
+			POOL.invoke(new ValidationTask(array, entityNames, results, timings, 0, n));
+		}
+
+		synchronized (cache) {
+			for ( int i = 0 ; i < n ; i++ ) {
+				String name = array[i].getClassName();
+				report.addValidated(name, results[i]);
+				if ( toValidateKeys.get(i) != null ) {
+					cache.put(name, new CachedResult(toValidateKeys.get(i), results[i]));
+				}
+				else {
+					cache.remove(name);
+				}
+			}
+		}
+		for ( int r = 0 ; r < rules.size() ; r++ ) {
+			report.setRuleTiming(r, timings.get(r));
+		}
+		report.setElapsedTime(System.nanoTime() - start);
+		return report ;
+	}
+
+	/**
+	 * Clears all the cached results
+	 */
+	public void clearCaches() {
+		synchronized (caches) {
+			caches.clear();
+		}
+	}
+
+	private Map<String, CachedResult> getCache(File modelFile) {
+		synchronized (caches) {
+			String path = modelFile.getAbsolutePath();
+			Map<String, CachedResult> cache = caches.get(path);
+			if ( cache == null ) {
+				cache = new HashMap<>();
+				caches.put(path, cache);
+			}
+			return cache ;
+		}
+	}
+
+	private String[] getRulesNames() {
+		String[] names = new String[rules.size()];
+		int i = 0 ;
+		for ( ValidationRule rule : rules ) {
+			names[i++] = rule.getName();
+		}
+		return names ;
+	}
+
+	/**
+	 * Returns the hash of the file of each entity of a DSL model ( entity name --> hash )
+	 * @param modelFile
+	 * @return
+	 */
+	private Map<String, String> computeEntitiesHashes(File modelFile) {
+		Map<String, String> hashes = new HashMap<>();
+		for ( File entityFile : DslModelLoader.getEntityFiles(modelFile) ) {
+			String hash = hash(entityFile);
+			if ( hash != null ) {
+				hashes.put(DslModelLoader.getEntityName(entityFile), hash);
+			}
+		}
+		return hashes ;
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the given file content 
+	 * @param file
+	 * @return the hash or null if the file cannot be read
+	 */
+	protected static String hash(File file) {
+		try ( InputStream in = new FileInputStream(file) ) {
+			MessageDigest digest = newDigest();
+			byte[] buffer = new byte[8192];
+			int n ;
+			while ( ( n = in.read(buffer) ) > 0 ) {
+				digest.update(buffer, 0, n);
+			}
+			return toHex(digest.digest());
+		} catch (IOException e) {
+			return null ;
+		}
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the given names (in the iteration order)
+	 * @param names
+	 * @return
+	 */
+	protected static String hash(Set<String> names) {
+		MessageDigest digest = newDigest();
+		for ( String name : names ) {
+			digest.update(name.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n'); // separator (not in a name)
+		}
+		return toHex(digest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 not available", e); // required on every JVM
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for ( byte b : bytes ) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Validation result of an entity with its hash key
+	 */
+	private static class CachedResult {
+		private final String       key ;
+		private final List<String> messages ;
+
+		protected CachedResult(String key, List<String> messages) {
+			super();
+			this.key = key;
+			this.messages = messages;
+		}
+	}
+
+	/**
+	 * Validation task : validates a range of entities (split if too large)
+	 */
+	private class ValidationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Entity[]        entities ;
+		private final Set<String>     entityNames ;
+		private final List<String>[]  results ;
+		private final AtomicLongArray timings ;
+		private final int             from ;
+		private final int             to ;
+
+		/**
+		 * Constructor
+		 * @param entities
+		 * @param entityNames
+		 * @param results result for each entity (same indexes as entities)
+		 * @param timings time spent in each rule (nanoseconds)
+		 * @param from first index (inclusive) 
+		 * @param to last index (exclusive)
+		 */
+		protected ValidationTask(Entity[] entities, Set<String> entityNames, List<String>[] results,
+				AtomicLongArray timings, int from, int to) {
+			super();
+			this.entities = entities;
+			this.entityNames = entityNames;
+			this.results = results;
+			this.timings = timings;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ( to - from <= ENTITIES_PER_TASK ) {
+				for ( int i = from ; i < to ; i++ ) {
+					results[i] = validateEntity(entities[i]);
+				}
+			}
+			else {
+				int middle = ( from + to ) >>> 1 ;
+				invokeAll(new ValidationTask(entities, entityNames, results, timings, from, middle),
+						new ValidationTask(entities, entityNames, results, timings, middle, to) );
+			}
+		}
+
+		private List<String> validateEntity(Entity entity) {
+			List<String> messages = new LinkedList<>();
+			int r = 0 ;
+			for ( ValidationRule rule : rules ) {
+				long t0 = System.nanoTime();
+				List<String> ruleMessages = new LinkedList<>();
+				try {
+					rule.validate(entity, entityNames, ruleMessages);
+				} catch (RuntimeException e) {
+					ruleMessages.add("unexpected error : " + e.getMessage());
+				}
+				timings.addAndGet(r++, System.nanoTime() - t0);
+				for ( String message : ruleMessages ) {
+					messages.add("[" + rule.getName() + "] " + message);
+				}
+			}
+			return messages ;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of a model validation
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ValidationReport {
+
+	private final Map<String, List<String>> messages = new TreeMap<>();
+	private final String[] rulesNames ;
+	private final long[]   rulesTimings ;
+
+	private int  validated   = 0 ;
+	private int  reused      = 0 ;
+	private long elapsedTime = 0 ;
+
+	/**
+	 * Constructor
+	 * @param rulesNames
+	 */
+	protected ValidationReport(String[] rulesNames) {
+		super();
+		this.rulesNames = rulesNames ;
+		this.rulesTimings = new long[rulesNames.length];
+	}
+
+	protected void addValidated(String entityName, List<String> entityMessages) {
+		validated++ ;
+		putMessages(entityName, entityMessages);
+	}
+
+	protected void addReused(String entityName, List<String> entityMessages) {
+		reused++ ;
+		putMessages(entityName, entityMessages);
+	}
+
+	private void putMessages(String entityName, List<String> entityMessages) {
+		if ( entityMessages != null && ! entityMessages.isEmpty() ) {
+			messages.put(entityName, entityMessages);
+		}
+	}
+
+	protected void setRuleTiming(int ruleIndex, long nanos) {
+		rulesTimings[ruleIndex] = nanos ;
+	}
+
+	protected void setElapsedTime(long nanos) {
+		this.elapsedTime = nanos ;
+	}
+
+	/**
+	 * Returns the problems found for each entity ( entities without problem are not in the map )
+	 * @return
+	 */
+	public Map<String, List<String>> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Returns the number of problems found 
+	 * @return
+	 */
+	public int getProblemsCount() {
+		int n = 0 ;
+		for ( List<String> list : messages.values() ) {
+			n += list.size();
+		}
+		return n ;
+	}
+
+	/**
+	 * Returns the number of entities validated 
+	 * @return
+	 */
+	public int getValidated() {
+		return validated;
+	}
+
+	/**
+	 * Returns the number of entities with a result reused (unchanged since the previous validation)
+	 * @return
+	 */
+	public int getReused() {
+		return reused;
+	}
+
+	public String[] getRulesNames() {
+		return rulesNames;
+	}
+
+	/**
+	 * Returns the cumulated time spent in each rule (nanoseconds, all threads)
+	 * @return
+	 */
+	public long[] getRulesTimings() {
+		return rulesTimings;
+	}
+
+	/**
+	 * Returns the validation duration (nanoseconds)
+	 * @return
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+}
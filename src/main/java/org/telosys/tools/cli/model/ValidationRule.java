@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.util.List;
+import java.util.Set;
+
+import org.telosys.tools.generic.model.Entity;
+
+/**
+ * Validation rule applied to each entity of a model
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public interface ValidationRule {
+
+	/**
+	 * Returns the rule name (used in the messages and in the timings report)
+	 * @return
+	 */
+	String getName();
+
+	/**
+	 * Checks the given entity 
+	 * @param entity
+	 * @param entityNames all the entity names defined in the model
+	 * @param messages the list where to add the problems found
+	 */
+	void validate(Entity entity, Set<String> entityNames, List<String> messages);
+}
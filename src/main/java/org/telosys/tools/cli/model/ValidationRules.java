@@ -0,0 +1,132 @@
+/**
+ *  Copyright (C) 2015-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.cli.model;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+
+/**
+ * Standard validation rules for the entities 
+ *
+ * @author Laurent GUERIN
+ *
+ */
+public class ValidationRules {
+
+	/**
+	 * No constructor ! 
+	 */
+	private ValidationRules() {
+	}
+
+	/**
+	 * Returns all the standard rules 
+	 * @return
+	 */
+	public static List<ValidationRule> getStandardRules() {
+		List<ValidationRule> rules = new LinkedList<>();
+		rules.add(new LoadingWarningsRule());
+		rules.add(new KeyRule());
+		rules.add(new AttributesRule());
+		rules.add(new LinksRule());
+		return rules ;
+	}
+
+	/**
+	 * Reports the warnings found when the model has been loaded
+	 */
+	protected static class LoadingWarningsRule implements ValidationRule {
+		@Override
+		public String getName() {
+			return "warnings";
+		}
+		@Override
+		public void validate(Entity entity, Set<String> entityNames, List<String> messages) {
+			if ( entity.getWarnings() != null ) {
+				messages.addAll(entity.getWarnings());
+			}
+		}
+	}
+
+	/**
+	 * Checks the entity has a key (ID)
+	 */
+	protected static class KeyRule implements ValidationRule {
+		@Override
+		public String getName() {
+			return "key";
+		}
+		@Override
+		public void validate(Entity entity, Set<String> entityNames, List<String> messages) {
+			if ( entity.getKeyAttributes() == null || entity.getKeyAttributes().isEmpty() ) {
+				messages.add("no key attribute");
+			}
+		}
+	}
+
+	/**
+	 * Checks the attributes : unique name and type defined
+	 */
+	protected static class AttributesRule implements ValidationRule {
+		@Override
+		public String getName() {
+			return "attributes";
+		}
+		@Override
+		public void validate(Entity entity, Set<String> entityNames, List<String> messages) {
+			if ( entity.getAttributes() == null || entity.getAttributes().isEmpty() ) {
+				messages.add("no attribute");
+				return ;
+			}
+			Set<String> names = new HashSet<>();
+			for ( Attribute attribute : entity.getAttributes() ) {
+				if ( ! names.add(attribute.getName()) ) {
+					messages.add("duplicated attribute '" + attribute.getName() + "'");
+				}
+				if ( attribute.getNeutralType() == null || attribute.getNeutralType().trim().length() == 0 ) {
+					messages.add("no type for attribute '" + attribute.getName() + "'");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks the links : target entity must exist in the model
+	 */
+	protected static class LinksRule implements ValidationRule {
+		@Override
+		public String getName() {
+			return "links";
+		}
+		@Override
+		public void validate(Entity entity, Set<String> entityNames, List<String> messages) {
+			if ( entity.getLinks() != null ) {
+				for ( Link link : entity.getLinks() ) {
+					String target = link.getTargetEntityClassName();
+					if ( target != null && ! entityNames.contains(target) ) {
+						messages.add("link '" + link.getFieldName() + "' : unknown target entity '" + target + "'");
+					}
+				}
+			}
+		}
+	}
+}
@@ -42,17 +42,30 @@ public class ApplicationLauncher {
 
 		String workingDirectory = "."; // the current directory
 		
-		launch(workingDirectory, args);
+		int exitCode = launch(workingDirectory, args);
+		if ( exitCode != 0 ) {
+			System.exit(exitCode);
+		}
 	}
 	
-	private static void launch( String workingDirectory, String[] args) throws TelosysToolsException, GeneratorException {
+	/**
+	 * Launches the generation 
+	 * @param workingDirectory
+	 * @param args
+	 * @return the exit code ( 0 if OK )
+	 * @throws TelosysToolsException
+	 * @throws GeneratorException
+	 */
+	private static int launch( String workingDirectory, String[] args) throws TelosysToolsException, GeneratorException {
 
 		print("--------------------------" );
 		print("Telosys Generator Launcher" );
 		print("--------------------------" );
 		print("Current working directory : " + workingDirectory );
 
-		checkArgs(args);
+		if ( ! checkArgs(args) ) {
+			return 1 ;
+		}
 		String  launcherName = args[0] ;
 		boolean yesOption = false ;
 		if ( args.length == 2 ) {
@@ -65,6 +78,9 @@ public class ApplicationLauncher {
 
 		print("Creating launcher..." );
 		TelosysLauncher launcher = buildLauncher(workingDirectory, launcherName ) ;
+		if ( launcher == null ) {
+			return 1 ;
+		}
 		
 		print("Launcher ready" );
 		print(" - launcher name  : " + launcher.getLauncherName() );
@@ -93,14 +109,15 @@ public class ApplicationLauncher {
 		print("" );
 		if ( ! yesOption ) {
 			if ( confirm("Do you want to launch the generation [y/n] ? ") ) {
-				launchGeneration(launcher);
+				return launchGeneration(launcher);
 			}
 			else {
 				print("OK, bye." );
+				return 0 ;
 			}
 		}
 		else {
-			launchGeneration(launcher);
+			return launchGeneration(launcher);
 		}
 	}
 	
@@ -117,7 +134,7 @@ public class ApplicationLauncher {
 		}		
 	}
 
-	private static void checkArgs(String[] args ) {
+	private static boolean checkArgs(String[] args ) {
 		print(args.length + " argument(s) :");
 		for( String arg : args ) {
 			print(" . " + arg );
@@ -126,8 +143,9 @@ public class ApplicationLauncher {
 		if ( args.length < 1 || args.length > 2 ) {
 			print("ERROR : invalid arguments !");
 			printSyntax();
-			System.exit(1);
+			return false ;
 		}
+		return true ;
 	}
 
 	private static void printSyntax() {
@@ -142,7 +160,17 @@ public class ApplicationLauncher {
 		System.out.println(s);
 	}
 
-	private static GenerationTaskResult launchGeneration(TelosysLauncher launcher) throws TelosysToolsException, GeneratorException {
+	/**
+	 * Launches the generation with the model, the entities and the templates selected by the launcher <br>
+	 * NB : the launcher loads its model with the Telosys library (sequential parsing), 
+	 * the CLI parallel loader cannot be used here : TelosysLauncher does not accept a preloaded model 
+	 * and does not expose its templates selection
+	 * @param launcher
+	 * @return the exit code ( 0 if no generation error )
+	 * @throws TelosysToolsException
+	 * @throws GeneratorException
+	 */
+	private static int launchGeneration(TelosysLauncher launcher) throws TelosysToolsException, GeneratorException {
 		print("Lauching generation..." );
 		GenerationTaskResult result = launcher.launchGeneration();
 		print("End of generation : " );
@@ -150,7 +178,7 @@ public class ApplicationLauncher {
 		print(" " + result.getNumberOfResourcesCopied() + " resource(s) copied");
 		print(" " + result.getNumberOfGenerationErrors() + " errors(s) ");
 
-		return result;
+		return result.getNumberOfGenerationErrors() > 0 ? 1 : 0 ;
 	}
 
 	private static TelosysLauncher buildLauncher(String workingDirectory, String launcherName ) {
@@ -159,7 +187,6 @@ public class ApplicationLauncher {
 			
 		} catch (Exception e) {
 			print("ERROR : " + e.getMessage());
-			System.exit(1);
 			return null ;
 		}
 	}
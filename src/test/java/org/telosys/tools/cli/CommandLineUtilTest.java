@@ -0,0 +1,75 @@
+package org.telosys.tools.cli;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CommandLineUtilTest {
+
+	@Test
+	public void testToArgs() {
+		assertArrayEquals(new String[] { "gen", "*", "*" }, CommandLineUtil.toArgs("gen * *"));
+		assertArrayEquals(new String[] { "cd", "my dir" }, CommandLineUtil.toArgs("cd \"my dir\""));
+	}
+
+	@Test
+	public void testSplitChainSingle() {
+		assertEquals(Arrays.asList("gen * *"), CommandLineUtil.splitChain("gen * * "));
+	}
+
+	@Test
+	public void testSplitChain() {
+		assertEquals(Arrays.asList("m foo", "&&", "b jpa", ";", "gen * *", "||", "err"), 
+				CommandLineUtil.splitChain("m foo && b jpa ; gen * * || err"));
+		assertEquals(Arrays.asList("pwd", ";", ""), CommandLineUtil.splitChain("pwd;"));
+	}
+
+	@Test
+	public void testSplitChainQuoted() {
+		assertEquals(Arrays.asList("cd \"a;b\"", "&&", "le '/a||b/'"), 
+				CommandLineUtil.splitChain("cd \"a;b\" && le '/a||b/'"));
+	}
+
+	@Test
+	public void testSplitChainRegex() {
+		assertEquals(Arrays.asList("le /A||B/", "&&", "lt !/a;b/", ";", "le Car,/x&y/"), 
+				CommandLineUtil.splitChain("le /A||B/ && lt !/a;b/ ; le Car,/x&y/"));
+		assertEquals(Arrays.asList("le /A|B/", ";", "gen * *"), CommandLineUtil.splitChain("le /A|B/;gen * *"));
+		// not a regular expression ( not closed before the next whitespace )
+		assertEquals(Arrays.asList("h /tmp", ";", "m foo"), CommandLineUtil.splitChain("h /tmp;m foo"));
+		assertEquals(Arrays.asList("cd /tmp/a", ";", "ls"), CommandLineUtil.splitChain("cd /tmp/a;ls"));
+	}
+
+	@Test
+	public void testSplitSequence() {
+		assertEquals(Arrays.asList("m foo && b jpa", "gen * *"), 
+				CommandLineUtil.splitSequence("m foo&&b jpa; gen * *"));
+		assertEquals(Arrays.asList("h /tmp", "m foo"), CommandLineUtil.splitSequence("h /tmp;m foo"));
+	}
+
+	@Test
+	public void testQuote() {
+		assertEquals("foo", CommandLineUtil.quote("foo"));
+		assertEquals("\"my dir\"", CommandLineUtil.quote("my dir"));
+		String[] args = { "cd", "my dir", "", "a;b", "x&&y", "it's", "say \"hi\"", "both ' and \"" };
+		StringBuilder sb = new StringBuilder();
+		for ( String arg : args ) {
+			sb.append(CommandLineUtil.quote(arg)).append(' ');
+		}
+		// parsed again as the same arguments and not split 
+		assertEquals(1, CommandLineUtil.splitChain(sb.toString()).size());
+		assertArrayEquals(args, CommandLineUtil.toArgs(sb.toString()));
+	}
+
+	@Test
+	public void testGetBackgroundCommand() {
+		assertEquals("gen * *", CommandLineUtil.getBackgroundCommand("gen * * & "));
+		assertEquals("m foo && gen * *", CommandLineUtil.getBackgroundCommand("m foo && gen * *&"));
+		assertNull(CommandLineUtil.getBackgroundCommand("gen * *"));
+		assertNull(CommandLineUtil.getBackgroundCommand("gen * * &&"));
+	}
+}
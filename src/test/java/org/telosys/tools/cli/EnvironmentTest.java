@@ -0,0 +1,48 @@
+package org.telosys.tools.cli;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EnvironmentTest {
+
+	@Test
+	public void testSnapshot() throws InterruptedException {
+		final Environment environment = new Environment(null);
+		environment.setCurrentModel("model1");
+		environment.setCurrentBundle("bundle1");
+		Environment.Snapshot snapshot = environment.takeSnapshot();
+
+		// changed in the session after the job launch
+		environment.setCurrentModel("model2");
+
+		environment.setSnapshot(snapshot);
+		try {
+			assertEquals("model1", environment.getCurrentModel());
+			assertEquals("bundle1", environment.getCurrentBundle());
+			assertNull(environment.getHomeDirectory());
+			environment.setCurrentBundle("bundle3"); // changed by the job
+
+			// other threads (eg the console) still see the session state
+			final AtomicReference<String> model = new AtomicReference<>();
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					model.set(environment.getCurrentModel());
+				}
+			});
+			thread.start();
+			thread.join();
+			assertEquals("model2", model.get());
+			assertEquals("bundle3", environment.getCurrentBundle());
+		}
+		finally {
+			environment.clearSnapshot();
+		}
+		assertEquals("model2", environment.getCurrentModel());
+		assertEquals("bundle1", environment.getCurrentBundle()); // job change not applied to the session
+	}
+}
@@ -0,0 +1,97 @@
+package org.telosys.tools.cli.commons;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.cli.CancelCommandException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CriteriaTest {
+
+	private static final Criteria.NameProvider<String> NAME = new Criteria.NameProvider<String>() {
+		@Override
+		public String getName(String item) {
+			return item;
+		}
+	};
+
+	private static final List<String> NAMES = Arrays.asList("Driver", "CarOwner", "AuditLog", "Car", "AuditCar");
+
+	@Test
+	public void testSplitArg() {
+		assertNull(CriteriaUtil.splitArg(null));
+		assertNull(CriteriaUtil.splitArg(""));
+		assertNull(CriteriaUtil.splitArg("*"));
+		assertEquals(Arrays.asList("Car", "Driver"), CriteriaUtil.splitArg("Car, Driver,"));
+		assertEquals(Arrays.asList("/^A{1,2}$/", "!Audit*"), CriteriaUtil.splitArg("/^A{1,2}$/,!Audit*"));
+	}
+
+	@Test
+	public void testAll() {
+		Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg("*");
+		assertTrue(criteria.isAll());
+		assertEquals(Arrays.asList("AuditCar", "AuditLog", "Car", "CarOwner", "Driver"), criteria.select(NAMES, NAME));
+	}
+
+	@Test
+	public void testExact() {
+		Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg("Car,Driver");
+		assertTrue(criteria.matches("Car"));
+		assertFalse(criteria.matches("CarOwner"));
+		assertEquals(Arrays.asList("Car", "Driver"), criteria.select(NAMES, NAME));
+	}
+
+	@Test
+	public void testContains() {
+		Criteria criteria = CriteriaUtil.buildTemplateCriteriaFromArg("Car");
+		assertEquals(Arrays.asList("AuditCar", "Car", "CarOwner"), criteria.select(NAMES, NAME));
+	}
+
+	@Test
+	public void testGlobRegexAndNegation() {
+		assertEquals(Arrays.asList("Car", "CarOwner"),
+				CriteriaUtil.buildEntityCriteriaFromArg("Car*").select(NAMES, NAME));
+		assertEquals(Arrays.asList("Car"),
+				CriteriaUtil.buildEntityCriteriaFromArg("/^Car$/").select(NAMES, NAME));
+		assertEquals(Arrays.asList("Car", "CarOwner", "Driver"),
+				CriteriaUtil.buildEntityCriteriaFromArg("!Audit*").select(NAMES, NAME));
+		assertEquals(Arrays.asList("AuditLog"),
+				CriteriaUtil.buildEntityCriteriaFromArg("Audit*,!*Car").select(NAMES, NAME));
+		assertEquals("^\\QA.b\\E.*$", Criteria.globToRegex("A.b*"));
+	}
+
+	@Test(expected = CancelCommandException.class)
+	public void testInvalidRegex() {
+		CriteriaUtil.buildEntityCriteriaFromArg("/[a/");
+	}
+
+	@Test
+	public void testSortedNames() {
+		SortedNames<String> sorted = new SortedNames<>(NAMES, NAME);
+		assertEquals(5, sorted.size());
+		assertEquals(Arrays.asList("AuditCar", "AuditLog", "Car", "CarOwner", "Driver"), sorted.select(Criteria.all()));
+		assertEquals(Arrays.asList("Car", "CarOwner"), sorted.select(CriteriaUtil.buildEntityCriteriaFromArg("Car*")));
+		assertEquals(Arrays.asList("AuditCar", "AuditLog"), sorted.select(CriteriaUtil.buildEntityCriteriaFromArg("Audit*")));
+	}
+
+	@Test
+	public void testSortedNamesCache() {
+		SortedNames.Cache<Object, String> cache = new SortedNames.Cache<>(NAME);
+		Object owner = new Object();
+		SortedNames<String> sorted = cache.get(owner, NAMES);
+		assertTrue(sorted == cache.get(owner, NAMES));
+		assertFalse(sorted == cache.get(new Object(), NAMES));
+	}
+
+	@Test
+	public void testCompiledCriteriaReused() {
+		Criteria criteria = CriteriaUtil.buildEntityCriteriaFromArg("Car*,!*Owner");
+		assertTrue(criteria == CriteriaUtil.buildEntityCriteriaFromArg("Car*,!*Owner"));
+		assertFalse(criteria == CriteriaUtil.buildTemplateCriteriaFromArg("Car*,!*Owner"));
+	}
+}
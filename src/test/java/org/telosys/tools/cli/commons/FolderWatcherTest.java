@@ -0,0 +1,42 @@
+package org.telosys.tools.cli.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FolderWatcherTest {
+
+	private boolean waitForChange(FolderWatcher watcher) throws InterruptedException {
+		for ( int i = 0 ; i < 50 ; i++ ) {
+			if ( watcher.hasChanged() ) {
+				return true ;
+			}
+			Thread.sleep(100);
+		}
+		return false ;
+	}
+
+	@Test
+	public void testFolderCreatedAfterWatcher() throws IOException, InterruptedException {
+		File folder = new File(Files.createTempDirectory("watcher").toFile(), "models");
+		FolderWatcher watcher = new FolderWatcher(folder);
+		try {
+			assertFalse(watcher.isWatched());
+			assertFalse(watcher.hasChanged());
+			assertTrue(folder.mkdir());
+			assertTrue(watcher.hasChanged()); // folder created 
+			assertFalse(watcher.hasChanged());
+			assertTrue(new File(folder, "foo.model").createNewFile());
+			assertTrue(waitForChange(watcher)); // notified or detected with the folder stamp
+		}
+		finally {
+			watcher.close();
+		}
+		assertFalse(watcher.hasChanged());
+	}
+}
@@ -0,0 +1,41 @@
+package org.telosys.tools.cli.commons;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+	@Test
+	public void testBuckets() {
+		assertEquals(63, Histogram.bucketIndex(63));
+		assertEquals(64, Histogram.bucketIndex(64));
+		assertEquals(64, Histogram.bucketIndex(65));
+		assertEquals(65, Histogram.bucketIndex(66));
+		assertEquals(65, Histogram.bucketHighestValue(64));
+		for ( long value : new long[] { 100, 1000, 123456789L, Long.MAX_VALUE } ) {
+			long highest = Histogram.bucketHighestValue(Histogram.bucketIndex(value));
+			assertTrue(highest >= value);
+			assertTrue(highest - value <= value / 32);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		for ( int i = 1 ; i <= 100 ; i++ ) {
+			histogram.record(i);
+		}
+		histogram.record(-1); // ignored
+		assertEquals(100, histogram.getCount());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50, histogram.getMean());
+		assertEquals(50, histogram.getValueAtPercentile(50)); // exact value
+		assertEquals(95, histogram.getValueAtPercentile(94)); // bucket 94-95
+		assertEquals(95, histogram.getValueAtPercentile(95));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+	}
+}
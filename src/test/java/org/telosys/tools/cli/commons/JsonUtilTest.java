@@ -0,0 +1,31 @@
+package org.telosys.tools.cli.commons;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonUtilTest {
+
+	@Test
+	public void testScalars() {
+		assertEquals("null", JsonUtil.toJson(null));
+		assertEquals("12", JsonUtil.toJson(12));
+		assertEquals("true", JsonUtil.toJson(true));
+		assertEquals("\"a \\\"b\\\" \\\\ c\\n\\u0001\"", JsonUtil.toJson("a \"b\" \\ c\n\u0001"));
+	}
+
+	@Test
+	public void testRecord() {
+		Map<String, Object> record = new LinkedHashMap<>();
+		record.put("entity", "Car");
+		record.put("table", null);
+		record.put("warning", false);
+		record.put("causes", Arrays.asList("x", "y"));
+		assertEquals("{\"entity\":\"Car\",\"table\":null,\"warning\":false,\"causes\":[\"x\",\"y\"]}", 
+				JsonUtil.toJson(record));
+	}
+}
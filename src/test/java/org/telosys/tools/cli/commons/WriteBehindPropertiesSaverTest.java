@@ -0,0 +1,49 @@
+package org.telosys.tools.cli.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindPropertiesSaverTest {
+
+	private Properties properties(String model) {
+		Properties properties = new Properties();
+		properties.setProperty("model", model);
+		return properties ;
+	}
+
+	@Test
+	public void testPermissionsKept() throws IOException {
+		File file = new File(Files.createTempDirectory("saver").toFile(), "telosys.env");
+		Files.write(file.toPath(), "model=foo\n".getBytes());
+		Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-rw-r--"));
+		WriteBehindPropertiesSaver saver = new WriteBehindPropertiesSaver(1000);
+		try {
+			saver.save(file, properties("bar"));
+			saver.flush();
+		}
+		finally {
+			saver.close();
+		}
+		assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+		assertTrue(new String(Files.readAllBytes(file.toPath())).contains("model=bar"));
+		assertTrue(saver.takeErrors().isEmpty());
+	}
+
+	@Test
+	public void testErrorsReported() throws IOException {
+		File file = new File(Files.createTempDirectory("saver").toFile(), "nofolder/telosys.env");
+		WriteBehindPropertiesSaver saver = new WriteBehindPropertiesSaver(1000);
+		saver.close();
+		saver.save(file, properties("foo")); // written immediately after 'close'
+		assertEquals(1, saver.takeErrors().size());
+		assertTrue(saver.takeErrors().isEmpty());
+	}
+}
@@ -0,0 +1,79 @@
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.dsl.DslModelUtil;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelWriterTest {
+
+	@Test
+	public void testUniqueName() {
+		Set<String> names = new HashSet<>();
+		assertEquals("car", DslModelWriter.uniqueName("car", names));
+		assertEquals("driver", DslModelWriter.uniqueName("driver", names));
+		assertEquals("car2", DslModelWriter.uniqueName("car", names));
+		assertEquals("car3", DslModelWriter.uniqueName("car", names));
+		assertEquals(4, names.size());
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		TelosysProject project = new TelosysProject(Files.createTempDirectory("project").toString());
+		project.initProject();
+		File dbModelFile = new File(project.getTelosysToolsCfg().getModelsFolderAbsolutePath(), "bookstore.dbmodel");
+		try ( InputStream in = getClass().getResourceAsStream("/models/bookstore.dbmodel") ) {
+			Files.copy(in, dbModelFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		Model dbModel = project.loadModel(dbModelFile);
+		assertNotNull(dbModel);
+
+		// DB model => DSL model (as 'cvm')
+		File modelFile = project.createNewDslModel("bookstore2");
+		Map<String, String> errors = DslModelWriter.writeEntities(dbModel, DslModelUtil.getModelFolder(modelFile), dbModelFile.getName());
+		assertTrue(errors.toString(), errors.isEmpty());
+
+		Model dslModel = new DslModelLoader().loadModel(modelFile);
+		assertEquals(dbModel.getEntities().size(), dslModel.getEntities().size());
+		for ( Entity entity : dbModel.getEntities() ) {
+			Entity reloaded = dslModel.getEntityByClassName(entity.getClassName());
+			assertNotNull(reloaded);
+			assertEquals(describe(entity), describe(reloaded));
+		}
+	}
+
+	/**
+	 * Describes the attributes and links kept in a DSL entity (the database names are not kept)
+	 * @param entity
+	 * @return
+	 */
+	private List<String> describe(Entity entity) {
+		List<String> lines = new ArrayList<>();
+		for ( Attribute attribute : entity.getAttributes() ) {
+			lines.add(attribute.getName() + " : " + attribute.getNeutralType() 
+					+ " key=" + attribute.isKeyElement() + " notNull=" + attribute.isNotNull()
+					+ " maxLength=" + ( "string".equals(attribute.getNeutralType()) ? attribute.getMaxLength() : null ) );
+		}
+		for ( Link link : entity.getLinks() ) {
+			lines.add(link.getFieldName() + " : " + link.getTargetEntityClassName());
+		}
+		return lines ;
+	}
+}
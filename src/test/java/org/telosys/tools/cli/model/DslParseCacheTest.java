@@ -0,0 +1,58 @@
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.telosys.tools.cli.commons.FileStamp;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class DslParseCacheTest {
+
+	private File createEntityFile(File dir, String name, String content) throws IOException {
+		File file = new File(dir, name + ".entity");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file ;
+	}
+
+	@Test
+	public void testFindReferences() throws IOException {
+		File dir = Files.createTempDirectory("dsl").toFile();
+		File car = createEntityFile(dir, "Car", 
+				"Car {\n id : int {@Id};\n driver : Driver;\n owners : Owner[]; // Carrier\n label : string; // Garage\n}\n");
+		DomainModel domainModel = new DomainModel("test");
+		for ( String name : Arrays.asList("Car", "Driver", "Owner", "Carrier", "Garage") ) {
+			domainModel.putEntity(new DomainEntity(name));
+		}
+		DomainEntity entity = DslModelLoader.parseEntity(domainModel, car);
+		// link targets only (no match in the comments)
+		assertEquals(new HashSet<>(Arrays.asList("Driver", "Owner")), DslModelLoader.findReferences(entity));
+	}
+
+	@Test
+	public void testRemoveReferencing() throws IOException {
+		File dir = Files.createTempDirectory("dsl").toFile();
+		FileStamp car = new FileStamp(createEntityFile(dir, "Car", "Car {}"));
+		FileStamp driver = new FileStamp(createEntityFile(dir, "Driver", "Driver {}"));
+		DslParseCache cache = new DslParseCache();
+		cache.put(car, new DomainEntity("Car"), Collections.singleton("Driver"));
+		cache.put(driver, new DomainEntity("Driver"), Collections.<String>emptySet());
+		assertEquals(0, cache.getChangedFiles(Arrays.asList(car, driver)).size());
+		assertEquals(Collections.singleton(car.getPath()), cache.getChangedFiles(Arrays.asList(driver)));
+
+		assertEquals(1, cache.removeReferencing(Collections.singleton("Driver")));
+		assertNull(cache.get(car));
+		assertNotNull(cache.get(driver));
+	}
+}
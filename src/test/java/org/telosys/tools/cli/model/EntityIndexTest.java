@@ -0,0 +1,54 @@
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EntityIndexTest {
+
+	private File createFile(String name, String content) throws IOException {
+		File dir = Files.createTempDirectory("index").toFile();
+		File file = new File(dir, name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file ;
+	}
+
+	@Test
+	public void testReadDeclaredEntityName() throws IOException, TelosysToolsException {
+		assertEquals("Car", EntityIndex.readDeclaredEntityName(createFile("Car.entity", "// Car { x }\nCar {\n}\n")));
+		assertEquals("Car", EntityIndex.readDeclaredEntityName(createFile("Car.entity", "/* Foo { \n * Bar { */ Car /**/ {\n}\n")));
+		assertEquals("Car", EntityIndex.readDeclaredEntityName(createFile("Car.entity", "/*/ Foo { */Car{}")));
+		assertEquals("Car", EntityIndex.readDeclaredEntityName(createFile("Car.entity", "// Car\n@DbTable(CAR)\nCar {\n}\n")));
+	}
+
+	@Test
+	public void testBuildForDbModelWithoutJavaBean() throws IOException, TelosysToolsException {
+		File file = createFile("test.dbmodel", "<root><tableList>"
+				+ "<table name=\"CAR\" javaBean=\"Car\"><column dbName=\"ID\" dbPrimaryKey=\"true\"/></table>"
+				+ "<table name=\"DRIVER\"><column dbName=\"ID\" dbPrimaryKey=\"false\"/></table>"
+				+ "</tableList></root>");
+		List<EntitySummary> list = EntityIndex.buildForDbModel(file);
+		assertEquals(2, list.size());
+		assertEquals("Car", list.get(0).getClassName());
+		assertNull(list.get(0).getIndexCheck());
+		assertEquals("DRIVER", list.get(1).getClassName());
+		assertEquals(EntitySummary.NO_PRIMARY_KEY, list.get(1).getIndexCheck());
+	}
+
+	@Test(expected = TelosysToolsException.class)
+	public void testBuildForDbModelWithDtd() throws IOException, TelosysToolsException {
+		File secret = createFile("secret.txt", "secret");
+		File file = createFile("test.dbmodel", "<?xml version=\"1.0\"?>"
+				+ "<!DOCTYPE root [ <!ENTITY xxe SYSTEM \"" + secret.toURI() + "\"> ]>"
+				+ "<root><table name=\"&xxe;\"/></root>");
+		EntityIndex.buildForDbModel(file);
+	}
+}
@@ -0,0 +1,23 @@
+package org.telosys.tools.cli.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ModelHeapReportTest {
+
+	@Test
+	public void testStringSize() {
+		// String object : 24 bytes + value array 
+		if ( System.getProperty("java.specification.version").startsWith("1.") ) {
+			// char[]
+			assertEquals(24 + 40, ModelHeapReport.stringSize("abcdefghi")); // 16 + 18 => 40
+		}
+		else {
+			// compact strings : byte[]
+			assertEquals(24 + 16, ModelHeapReport.stringSize(""));
+			assertEquals(24 + 32, ModelHeapReport.stringSize("abcdefghi")); // Latin-1 : 16 + 9 => 32
+			assertEquals(24 + 40, ModelHeapReport.stringSize("\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac\u20ac")); // UTF-16 : 16 + 18 => 40
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package org.telosys.tools.cli.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.api.TelosysProject;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class ModelLoaderTest {
+
+	/**
+	 * Project with a DB model loading always in error
+	 */
+	private static class FailingProject extends TelosysProject {
+		private final AtomicInteger loadings = new AtomicInteger();
+		protected FailingProject(String folder) {
+			super(folder);
+		}
+		@Override
+		public Model loadModel(File modelFile) throws TelosysToolsException {
+			throw new TelosysToolsException("Invalid model #" + loadings.incrementAndGet());
+		}
+	}
+
+	private File createModelFile(String content) throws IOException {
+		File dir = Files.createTempDirectory("models").toFile();
+		File file = new File(dir, "test.dbmodel");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file ;
+	}
+
+	@Test
+	public void testPreloadingErrorReported() throws IOException {
+		File modelFile = createModelFile("<root/>");
+		FailingProject project = new FailingProject(modelFile.getParent());
+		ModelLoader modelLoader = new ModelLoader();
+		modelLoader.preload(project, modelFile);
+		try {
+			modelLoader.loadModel(project, modelFile);
+			fail("exception expected");
+		} catch (TelosysToolsException e) {
+			assertEquals("Invalid model #1", e.getMessage()); // the preloading error
+		}
+		assertEquals(1, project.loadings.get()); // not loaded again
+	}
+
+	@Test
+	public void testPreloadingObsolete() throws IOException {
+		File modelFile = createModelFile("<root/>");
+		FailingProject project = new FailingProject(modelFile.getParent());
+		ModelLoader modelLoader = new ModelLoader();
+		modelLoader.preload(project, modelFile);
+		Files.write(modelFile.toPath(), "<root></root>".getBytes(StandardCharsets.UTF_8)); // modified
+		try {
+			modelLoader.loadModel(project, modelFile);
+			fail("exception expected");
+		} catch (TelosysToolsException e) {
+			// error of the new loading (the preloading can be cancelled if not yet started)
+			assertEquals("Invalid model #" + project.loadings.get(), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testDbModelSameAsLibrary() throws Exception {
+		TelosysProject project = new TelosysProject(Files.createTempDirectory("project").toString());
+		project.initProject();
+		File modelFile = new File(project.getTelosysToolsCfg().getModelsFolderAbsolutePath(), "bookstore.dbmodel");
+		try ( InputStream in = getClass().getResourceAsStream("/models/bookstore.dbmodel") ) {
+			Files.copy(in, modelFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		Model expected = project.loadModel(modelFile);
+		assertNotNull(expected);
+		assertEquals(2, expected.getEntities().size());
+
+		ModelLoader modelLoader = new ModelLoader();
+		assertEquals(describe(expected), describe(modelLoader.loadModel(project, modelFile)));
+		modelLoader.preload(project, modelFile);
+		assertEquals(describe(expected), describe(modelLoader.loadModel(project, modelFile)));
+	}
+
+	/**
+	 * Describes a model with the elements used by the CLI commands (name, entities, attributes, links)
+	 * @param model
+	 * @return
+	 */
+	private List<String> describe(Model model) {
+		List<String> lines = new ArrayList<>();
+		lines.add("model " + model.getName());
+		for ( Entity entity : model.getEntities() ) {
+			lines.add("entity " + entity.getClassName() + " " + entity.getDatabaseTable());
+			for ( Attribute attribute : entity.getAttributes() ) {
+				lines.add(" attribute " + attribute.getName() + " " + attribute.getNeutralType() 
+						+ " " + attribute.getDatabaseName() + " key=" + attribute.isKeyElement() 
+						+ " notNull=" + attribute.isNotNull() + " autoIncremented=" + attribute.isAutoIncremented());
+			}
+			for ( Link link : entity.getLinks() ) {
+				lines.add(" link " + link.getFieldName() + " " + link.getTargetEntityClassName());
+			}
+		}
+		return lines ;
+	}
+}
@@ -0,0 +1,29 @@
+package org.telosys.tools.cli.model;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ModelValidatorTest {
+
+	private Set<String> names(String... names) {
+		return new TreeSet<>(Arrays.asList(names));
+	}
+
+	@Test
+	public void testNamesHash() {
+		String hash = ModelValidator.hash(names("Book", "Author"));
+		assertEquals(40, hash.length()); // SHA-1
+		assertEquals(hash, ModelValidator.hash(names("Author", "Book")));
+		assertFalse(hash.equals(ModelValidator.hash(names("Author", "Books"))));
+		// "Aa" and "BB" have the same String hashCode
+		assertFalse(ModelValidator.hash(names("Aa")).equals(ModelValidator.hash(names("BB"))));
+		// the separator keeps the names apart
+		assertFalse(ModelValidator.hash(names("AB", "C")).equals(ModelValidator.hash(names("A", "BC"))));
+	}
+}